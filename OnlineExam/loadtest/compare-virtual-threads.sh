@@ -0,0 +1,94 @@
+#!/usr/bin/env bash
+# Runs the exam-day load test twice on a Java 21 runtime, once with platform threads and
+# once with virtual threads (APP_VIRTUAL_THREADS), and compares throughput and p99 per
+# endpoint. See "Virtual threads against platform threads" in README-LOADTEST.md.
+#
+#   loadtest/compare-virtual-threads.sh
+#   SCALE=2 JAVA_IMAGE=eclipse-temurin:21-jre loadtest/compare-virtual-threads.sh
+#
+# Needs docker, jq and Maven; k6 is taken from the PATH or else run from the compose service.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAVA_IMAGE=${JAVA_IMAGE:-eclipse-temurin:21-jre}
+SCALE=${SCALE:-1}
+RESULTS=loadtest/results
+JAR=target/OnlineExam-0.0.1-SNAPSHOT.jar
+APP_CONTAINER=online-exam-vt-compare
+STAMP=$(date +%Y-%m-%dT%H-%M-%S)
+
+mvn -B -q -DskipTests package
+
+stop_app() {
+    docker rm -f "$APP_CONTAINER" >/dev/null 2>&1 || true
+}
+trap stop_app EXIT
+
+# Starts the application from the jar in a Java 21 container with a fresh database and
+# an empty Redis, so both runs begin from the same seeded state.
+start_app() {
+    local virtual=$1
+    docker compose --profile loadtest up -d
+    docker compose restart postgres-loadtest >/dev/null
+    until docker compose exec -T postgres-loadtest pg_isready -U postgres >/dev/null 2>&1; do
+        sleep 1
+    done
+    docker compose exec -T redis redis-cli FLUSHALL >/dev/null
+
+    stop_app
+    docker run -d --name "$APP_CONTAINER" --network host \
+        -v "$PWD/$JAR:/app.jar:ro" \
+        -e SPRING_PROFILES_ACTIVE=loadtest \
+        -e APP_VIRTUAL_THREADS="$virtual" \
+        "$JAVA_IMAGE" java -jar /app.jar >/dev/null
+
+    echo "Waiting for the application (virtual threads: $virtual)"
+    until curl -sf http://127.0.0.1:9069/actuator/health/readiness >/dev/null; do
+        if [ -z "$(docker ps -q -f name="^${APP_CONTAINER}$")" ]; then
+            docker logs "$APP_CONTAINER" | tail -50
+            echo "The application did not start" >&2
+            exit 1
+        fi
+        sleep 2
+    done
+}
+
+run_k6() {
+    local output=$1
+    if command -v k6 >/dev/null; then
+        k6 run -e SCALE="$SCALE" -e OUTPUT="$output" loadtest/exam-day.js
+    else
+        docker compose --profile loadtest run --rm -e SCALE="$SCALE" -e OUTPUT="$output" k6
+    fi
+}
+
+for virtual in false true; do
+    start_app "$virtual"
+    if ! docker logs "$APP_CONTAINER" 2>&1 | grep -q "Virtual threads enabled" && [ "$virtual" = true ]; then
+        echo "Virtual threads are not active; is $JAVA_IMAGE a Java 21+ image?" >&2
+        exit 1
+    fi
+    # k6 exits non-zero when a threshold fails; the comparison is still wanted then.
+    run_k6 "$RESULTS/vt-$STAMP-$virtual.json" || true
+    stop_app
+done
+
+PLATFORM="$RESULTS/vt-$STAMP-false.json"
+VIRTUAL="$RESULTS/vt-$STAMP-true.json"
+echo
+echo "Platform threads: $PLATFORM"
+echo "Virtual threads:  $VIRTUAL"
+jq -r -n --slurpfile p "$PLATFORM" --slurpfile v "$VIRTUAL" '
+    def pad(width): tostring | (" " * ([width - length, 0] | max)) + .;
+    def pct(a; b): if a > 0 then ((b - a) / a * 100 | . * 10 | round / 10 | tostring) + "%" else "-" end;
+    "\("endpoint" | . + " " * (34 - length))\("req/s pt" | pad(10))\("req/s vt" | pad(10))\("change" | pad(9))\("p99 pt" | pad(9))\("p99 vt" | pad(9))\("change" | pad(9))",
+    ($p[0].endpoints[] as $row
+        | ($v[0].endpoints[] | select(.endpoint == $row.endpoint)) as $other
+        | ($row.endpoint | . + " " * (34 - length))
+          + ($row.throughput | . * 10 | round / 10 | pad(10))
+          + ($other.throughput | . * 10 | round / 10 | pad(10))
+          + (pct($row.throughput; $other.throughput) | pad(9))
+          + ($row.p99 | round | pad(9))
+          + ($other.p99 | round | pad(9))
+          + (pct($row.p99; $other.p99) | pad(9)))'
@@ -0,0 +1,252 @@
+// Exam-day load test. Run against an instance started with the `loadtest` profile,
+// which seeds the users, courses and exams referenced below (see README-LOADTEST.md).
+//
+//   k6 run loadtest/exam-day.js
+//   k6 run -e BASE_URL=http://localhost:8069 -e BASELINE=loadtest/results/v1.2.json loadtest/exam-day.js
+//
+// Every request is tagged with a stable endpoint name; the summary reports
+// throughput and latency percentiles per endpoint and, when BASELINE points at the
+// JSON of an earlier run, the change in p95 against it.
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+import exec from 'k6/execution';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8069';
+const PASSWORD = __ENV.PASSWORD || 'loadtest123';
+const ADMIN_USERNAME = __ENV.ADMIN_USERNAME || 'admin';
+const ADMIN_PASSWORD = __ENV.ADMIN_PASSWORD || 'admin123';
+const TEACHERS = parseInt(__ENV.TEACHERS || '20');
+const STUDENTS = parseInt(__ENV.STUDENTS || '2000');
+const SCALE = parseFloat(__ENV.SCALE || '1');
+const OUTPUT = __ENV.OUTPUT || `loadtest/results/exam-day-${new Date().toISOString().replace(/[:.]/g, '-')}.json`;
+const BASELINE = __ENV.BASELINE ? JSON.parse(open(__ENV.BASELINE)) : null;
+
+const ENDPOINTS = [
+    'GET /login',
+    'POST /login',
+    'GET /dashboard',
+    'GET /teacher/courses',
+    'GET /teacher/courses/{id}/exams',
+    'GET /admin/users?q',
+    'GET /admin/users?after',
+    'POST /password-reset/forgot',
+];
+
+const thresholds = {
+    checks: ['rate>0.99'],
+    'http_req_failed': ['rate<0.01'],
+};
+// A threshold per endpoint makes k6 keep a sub-metric for it, which handleSummary reads.
+for (const endpoint of ENDPOINTS) {
+    thresholds[`http_req_duration{endpoint:${endpoint}}`] = ['p(95)<2000'];
+    thresholds[`http_reqs{endpoint:${endpoint}}`] = ['count>=0'];
+    thresholds[`http_req_failed{endpoint:${endpoint}}`] = ['rate<0.05'];
+}
+
+const rate = (value) => Math.max(1, Math.round(value * SCALE));
+
+export const options = {
+    discardResponseBodies: false,
+    summaryTrendStats: ['avg', 'p(50)', 'p(90)', 'p(95)', 'p(99)', 'max'],
+    thresholds,
+    scenarios: {
+        // Students arriving at the start of the exam window.
+        login_storm: {
+            executor: 'ramping-arrival-rate',
+            exec: 'loginStorm',
+            startRate: rate(5),
+            timeUnit: '1s',
+            preAllocatedVUs: rate(50),
+            maxVUs: rate(400),
+            stages: [
+                { target: rate(60), duration: '1m' },
+                { target: rate(60), duration: '3m' },
+                { target: rate(5), duration: '1m' },
+            ],
+        },
+        // Teachers watching their exam lists while students come in.
+        teacher_exams: {
+            executor: 'constant-vus',
+            exec: 'teacherExams',
+            vus: Math.min(TEACHERS, rate(20)),
+            duration: '5m',
+        },
+        // Admins looking students up from the support desk.
+        admin_search: {
+            executor: 'constant-vus',
+            exec: 'adminSearch',
+            vus: rate(3),
+            duration: '5m',
+        },
+        // Students who forgot their password, all in the first minutes of the exam.
+        password_reset_burst: {
+            executor: 'ramping-arrival-rate',
+            exec: 'passwordResetBurst',
+            startTime: '30s',
+            startRate: 0,
+            timeUnit: '1s',
+            preAllocatedVUs: rate(20),
+            maxVUs: rate(100),
+            stages: [
+                { target: rate(20), duration: '30s' },
+                { target: rate(20), duration: '1m' },
+                { target: 0, duration: '30s' },
+            ],
+        },
+    },
+};
+
+function tagged(endpoint) {
+    return { redirects: 0, tags: { endpoint } };
+}
+
+function login(username, password) {
+    http.get(`${BASE_URL}/login`, tagged('GET /login'));
+    const response = http.post(`${BASE_URL}/login`, { username, password }, tagged('POST /login'));
+    const location = response.headers['Location'] || '';
+    const ok = check(response, {
+        'login redirects to dashboard': (r) => r.status === 302 && location.endsWith('/dashboard'),
+    });
+    if (!ok) {
+        return false;
+    }
+    const dashboard = http.get(`${BASE_URL}/dashboard`, tagged('GET /dashboard'));
+    return check(dashboard, { 'dashboard rendered': (r) => r.status === 200 });
+}
+
+function logout() {
+    http.post(`${BASE_URL}/logout`, null, { redirects: 0, tags: { endpoint: 'POST /logout' } });
+}
+
+function randomInt(max) {
+    return Math.floor(Math.random() * max) + 1;
+}
+
+export function loginStorm() {
+    if (login(`lt-student-${randomInt(STUDENTS)}`, PASSWORD)) {
+        logout();
+    }
+}
+
+// Teacher and admin VUs log in once and keep their session, as real users do.
+let session = null;
+
+export function teacherExams() {
+    if (session === null) {
+        const username = `lt-teacher-${(exec.vu.idInTest % TEACHERS) + 1}`;
+        if (!login(username, PASSWORD)) {
+            sleep(1);
+            return;
+        }
+        const courses = http.get(`${BASE_URL}/teacher/courses`, tagged('GET /teacher/courses'));
+        const ids = [...new Set([...courses.body.matchAll(/\/teacher\/courses\/(\d+)\/exams/g)].map((m) => m[1]))];
+        session = { courseIds: ids };
+    }
+    if (session.courseIds.length === 0) {
+        sleep(5);
+        return;
+    }
+    const courseId = session.courseIds[randomInt(session.courseIds.length) - 1];
+    const response = http.get(`${BASE_URL}/teacher/courses/${courseId}/exams`,
+        tagged('GET /teacher/courses/{id}/exams'));
+    check(response, { 'exam list rendered': (r) => r.status === 200 });
+    sleep(2 + Math.random() * 3);
+}
+
+export function adminSearch() {
+    if (session === null) {
+        if (!login(ADMIN_USERNAME, ADMIN_PASSWORD)) {
+            sleep(1);
+            return;
+        }
+        session = {};
+    }
+    const q = `lt-student-${randomInt(STUDENTS)}`;
+    const search = http.get(`${BASE_URL}/admin/users?q=${q}`, tagged('GET /admin/users?q'));
+    check(search, { 'user search rendered': (r) => r.status === 200 });
+
+    const match = /[?&;]after=(\d+)/.exec(http.get(`${BASE_URL}/admin/users?roleName=ROLE_STUDENT`,
+        tagged('GET /admin/users?after')).body || '');
+    if (match) {
+        const next = http.get(`${BASE_URL}/admin/users?roleName=ROLE_STUDENT&after=${match[1]}`,
+            tagged('GET /admin/users?after'));
+        check(next, { 'next user page rendered': (r) => r.status === 200 });
+    }
+    sleep(1 + Math.random() * 2);
+}
+
+export function passwordResetBurst() {
+    const email = `lt-student-${randomInt(STUDENTS)}@loadtest.local`;
+    const response = http.post(`${BASE_URL}/password-reset/forgot`, { email },
+        tagged('POST /password-reset/forgot'));
+    check(response, {
+        'reset code accepted': (r) => r.status === 302
+            && (r.headers['Location'] || '').endsWith('/password-reset/verify-code'),
+    });
+}
+
+function endpointRows(data) {
+    const seconds = data.state.testRunDurationMs / 1000;
+    return ENDPOINTS.map((endpoint) => {
+        const duration = data.metrics[`http_req_duration{endpoint:${endpoint}}`];
+        const requests = data.metrics[`http_reqs{endpoint:${endpoint}}`];
+        const failed = data.metrics[`http_req_failed{endpoint:${endpoint}}`];
+        const count = requests ? requests.values.count : 0;
+        const values = duration ? duration.values : {};
+        return {
+            endpoint,
+            requests: count,
+            throughput: count / seconds,
+            failedRate: failed ? failed.values.rate : 0,
+            p50: values['p(50)'] || 0,
+            p90: values['p(90)'] || 0,
+            p95: values['p(95)'] || 0,
+            p99: values['p(99)'] || 0,
+            max: values.max || 0,
+        };
+    });
+}
+
+function pad(value, width) {
+    const text = String(value);
+    return text.length >= width ? text : ' '.repeat(width - text.length) + text;
+}
+
+function table(rows) {
+    const baseline = {};
+    if (BASELINE) {
+        for (const row of BASELINE.endpoints) {
+            baseline[row.endpoint] = row;
+        }
+    }
+    const header = `${'endpoint'.padEnd(34)}${pad('reqs', 8)}${pad('req/s', 9)}${pad('fail%', 7)}`
+        + `${pad('p50', 9)}${pad('p90', 9)}${pad('p95', 9)}${pad('p99', 9)}${pad('max', 9)}`
+        + (BASELINE ? pad('p95 vs base', 13) : '');
+    const lines = rows.map((row) => {
+        let line = `${row.endpoint.padEnd(34)}${pad(row.requests, 8)}${pad(row.throughput.toFixed(1), 9)}`
+            + `${pad((row.failedRate * 100).toFixed(1), 7)}`
+            + `${pad(row.p50.toFixed(0), 9)}${pad(row.p90.toFixed(0), 9)}${pad(row.p95.toFixed(0), 9)}`
+            + `${pad(row.p99.toFixed(0), 9)}${pad(row.max.toFixed(0), 9)}`;
+        const previous = baseline[row.endpoint];
+        if (previous && previous.p95 > 0) {
+            const change = (row.p95 - previous.p95) / previous.p95 * 100;
+            line += pad(`${change >= 0 ? '+' : ''}${change.toFixed(1)}%`, 13);
+        }
+        return line;
+    });
+    return ['', 'Latencies in ms', header, ...lines, ''].join('\n');
+}
+
+export function handleSummary(data) {
+    const rows = endpointRows(data);
+    const report = {
+        startedAt: new Date(Date.now() - data.state.testRunDurationMs).toISOString(),
+        durationSeconds: data.state.testRunDurationMs / 1000,
+        scale: SCALE,
+        endpoints: rows,
+    };
+    return {
+        stdout: table(rows),
+        [OUTPUT]: JSON.stringify(report, null, 2),
+    };
+}
@@ -0,0 +1,149 @@
+-- Admin user search over a generated data set of 1M users (see README-LOADTEST.md).
+-- Compares the former search (LEFT JOIN + SELECT DISTINCT + ILIKE, no limit) with the
+-- ranked free-text search of UserRepository.searchUsersPage, each without and with the
+-- trigram indexes of db/search-indexes.sql.
+--
+--   docker compose --profile loadtest up -d postgres-loadtest
+--   psql -h localhost -p 5433 -U postgres -d online_exam_db -f loadtest/user-search-benchmark.sql
+--   psql ... -v users=200000 -v runs=5 -f loadtest/user-search-benchmark.sql
+--
+-- Everything lives in the user_search_bench schema, which is dropped and rebuilt on
+-- every run, so the application's own tables are never touched.
+\set ON_ERROR_STOP on
+\if :{?users}
+\else
+    \set users 1000000
+\endif
+\if :{?runs}
+\else
+    \set runs 10
+\endif
+
+DROP SCHEMA IF EXISTS user_search_bench CASCADE;
+CREATE SCHEMA user_search_bench;
+SET search_path = user_search_bench, public;
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+
+-- Same columns as the users, roles and user_roles tables Hibernate creates.
+CREATE TABLE roles (
+    id   bigint PRIMARY KEY,
+    name varchar(255) NOT NULL UNIQUE
+);
+CREATE TABLE users (
+    id               bigint PRIMARY KEY,
+    username         varchar(255) NOT NULL UNIQUE,
+    password         varchar(255) NOT NULL,
+    first_name       varchar(255) NOT NULL,
+    last_name        varchar(255) NOT NULL,
+    email            varchar(255) NOT NULL UNIQUE,
+    status           smallint     NOT NULL,
+    rejection_reason varchar(1000)
+);
+CREATE TABLE user_roles (
+    user_id bigint NOT NULL REFERENCES users (id),
+    role_id bigint NOT NULL REFERENCES roles (id),
+    PRIMARY KEY (user_id, role_id)
+);
+
+INSERT INTO roles VALUES (1, 'ROLE_ADMIN'), (2, 'ROLE_TEACHER'), (3, 'ROLE_STUDENT');
+
+\echo Generating :users users
+INSERT INTO users (id, username, password, first_name, last_name, email, status)
+SELECT n,
+       'user' || n,
+       '{noop}benchmark',
+       f.names[1 + n % array_length(f.names, 1)],
+       l.names[1 + (n / 7) % array_length(l.names, 1)],
+       'user' || n || '@example.com',
+       n % 3
+FROM generate_series(1, :users) n,
+     (SELECT ARRAY['Ali', 'Mohammad', 'Reza', 'Hossein', 'Mehdi', 'Amir', 'Hamid', 'Saeed',
+                   'Mostafa', 'Javad', 'Kaveh', 'Babak', 'Arash', 'Dariush', 'Farhad', 'Kian',
+                   'Sara', 'Maryam', 'Fatemeh', 'Zahra', 'Narges', 'Leila', 'Niloofar', 'Shirin',
+                   'Mahsa', 'Parisa', 'Roya', 'Yasaman', 'Elham', 'Samira', 'Ladan', 'Azadeh'] AS names) f,
+     (SELECT ARRAY['Ahmadi', 'Mohammadi', 'Hosseini', 'Rezaei', 'Moradi', 'Karimi', 'Jafari',
+                   'Rahimi', 'Hashemi', 'Mousavi', 'Sadeghi', 'Ghasemi', 'Kazemi', 'Tehrani',
+                   'Shirazi', 'Esfahani', 'Tabrizi', 'Kermani', 'Rostami', 'Nazari', 'Akbari',
+                   'Salehi', 'Ebrahimi', 'Najafi', 'Bagheri', 'Heidari', 'Abbasi', 'Zarei',
+                   'Ansari', 'Farahani', 'Soltani', 'Amini', 'Yazdani', 'Mahmoudi', 'Golzari',
+                   'Khosravi', 'Navabi', 'Parsa', 'Samadi', 'Vahidi'] AS names) l;
+
+INSERT INTO user_roles (user_id, role_id)
+SELECT id, CASE WHEN id % 20 = 0 THEN 2 ELSE 3 END FROM users;
+VACUUM ANALYZE users;
+VACUUM ANALYZE user_roles;
+
+CREATE TABLE results (
+    phase   text,
+    search  text,
+    term    text,
+    elapsed double precision
+);
+
+-- Runs a query once per term and run, and records the elapsed time of each execution.
+-- $1 is the search term, $2 the role filter, as in the repository queries.
+CREATE FUNCTION run_search(phase text, search text, query text, terms text[], runs int)
+    RETURNS void LANGUAGE plpgsql AS $$
+DECLARE
+    term    text;
+    started timestamptz;
+    matches bigint;
+BEGIN
+    FOREACH term IN ARRAY terms LOOP
+        FOR i IN 1..runs LOOP
+            started := clock_timestamp();
+            EXECUTE format('SELECT count(*) FROM (%s) q', query) INTO matches USING term, 'ROLE_STUDENT';
+            INSERT INTO results
+            VALUES (phase, search, term, extract(epoch FROM clock_timestamp() - started) * 1000);
+        END LOOP;
+    END LOOP;
+END
+$$;
+
+-- The former UserRepository.searchUsers with the first-name filter, as the admin page
+-- ran it before it was paginated: every match is returned.
+\set former_search 'SELECT DISTINCT u.* FROM users u LEFT JOIN user_roles ur ON u.id = ur.user_id LEFT JOIN roles r ON ur.role_id = r.id WHERE ($2 IS NULL OR $2 = '''' OR r.name = $2) AND ($1 IS NULL OR $1 = '''' OR u.first_name ILIKE CONCAT(''%'', $1, ''%'')) ORDER BY u.id'
+
+-- UserRepository.searchUsersPage with the free-text box, first page of 20 (+1 to detect a next page).
+\set ranked_search 'SELECT u.* FROM users u WHERE ($2 IS NULL OR $2 = '''' OR EXISTS (SELECT 1 FROM user_roles ur JOIN roles r ON ur.role_id = r.id WHERE ur.user_id = u.id AND r.name = $2)) AND ($1 = '''' OR (u.first_name || '' '' || u.last_name || '' '' || u.username || '' '' || u.email) ILIKE CONCAT(''%'', $1, ''%'') OR $1 <% (u.first_name || '' '' || u.last_name || '' '' || u.username || '' '' || u.email)) ORDER BY CASE WHEN $1 = '''' THEN 0 ELSE word_similarity($1, (u.first_name || '' '' || u.last_name || '' '' || u.username || '' '' || u.email)) END DESC, u.id LIMIT 21 OFFSET 0'
+
+-- A common first name, a rare substring, a last name with a typo, a username and an email.
+\set terms '''{Narges, iloof, Mohamadi, user734521, user73452@exa}'''
+
+\echo Running without trigram indexes
+SELECT run_search('no index', 'former', :'former_search', :terms, :runs);
+SELECT run_search('no index', 'ranked', :'ranked_search', :terms, :runs);
+
+\echo Creating the indexes of db/search-indexes.sql
+CREATE INDEX idx_users_first_name_trgm ON users USING gin (first_name gin_trgm_ops);
+CREATE INDEX idx_users_last_name_trgm ON users USING gin (last_name gin_trgm_ops);
+CREATE INDEX idx_users_search_text_trgm ON users
+    USING gin ((first_name || ' ' || last_name || ' ' || username || ' ' || email) gin_trgm_ops);
+ANALYZE users;
+
+\echo Running with trigram indexes
+SELECT run_search('trigram', 'former', :'former_search', :terms, :runs);
+SELECT run_search('trigram', 'ranked', :'ranked_search', :terms, :runs);
+
+\echo Latency in ms per search and term
+SELECT search,
+       term,
+       phase,
+       round(percentile_cont(0.5) WITHIN GROUP (ORDER BY elapsed)::numeric, 1)  AS p50,
+       round(percentile_cont(0.95) WITHIN GROUP (ORDER BY elapsed)::numeric, 1) AS p95,
+       round(max(elapsed)::numeric, 1)                                          AS max
+FROM results
+GROUP BY search, term, phase
+ORDER BY search, term, phase;
+
+\echo Plan of the ranked search for a username, with indexes
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT u.* FROM users u
+WHERE EXISTS (SELECT 1 FROM user_roles ur JOIN roles r ON ur.role_id = r.id
+              WHERE ur.user_id = u.id AND r.name = 'ROLE_STUDENT')
+  AND ((u.first_name || ' ' || u.last_name || ' ' || u.username || ' ' || u.email) ILIKE '%user734521%'
+       OR 'user734521' <% (u.first_name || ' ' || u.last_name || ' ' || u.username || ' ' || u.email))
+ORDER BY word_similarity('user734521', (u.first_name || ' ' || u.last_name || ' ' || u.username || ' ' || u.email)) DESC, u.id
+LIMIT 21;
+
+-- Keep the data for further experiments; drop it with DROP SCHEMA user_search_bench CASCADE.
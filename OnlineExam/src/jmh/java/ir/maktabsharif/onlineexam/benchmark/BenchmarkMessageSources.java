@@ -0,0 +1,32 @@
+package ir.maktabsharif.onlineexam.benchmark;
+import ir.maktabsharif.onlineexam.config.LocaleConfiguration;
+import ir.maktabsharif.onlineexam.i18n.PrecompiledMessageSource;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import java.util.List;
+
+/**
+ * Message sources built the way {@link LocaleConfiguration} builds the application's,
+ * so benchmarks that resolve labels pay the same lookup cost as a request does.
+ * {@link #reloadable(int)} is the configuration used before the bundles were precompiled.
+ */
+public final class BenchmarkMessageSources {
+
+    private BenchmarkMessageSources() {
+    }
+
+    public static MessageSource reloadable(int cacheSeconds) {
+        ReloadableResourceBundleMessageSource messageSource = new ReloadableResourceBundleMessageSource();
+        messageSource.setBasenames("classpath:messages", "classpath:ValidationMessages");
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setCacheSeconds(cacheSeconds);
+        messageSource.setFallbackToSystemLocale(false);
+        return messageSource;
+    }
+
+    public static MessageSource precompiled() {
+        return new PrecompiledMessageSource(List.of("messages", "ValidationMessages"),
+                List.of(LocaleConfiguration.ENGLISH, LocaleConfiguration.PERSIAN), event -> {
+                });
+    }
+}
@@ -0,0 +1,86 @@
+package ir.maktabsharif.onlineexam.benchmark;
+import ir.maktabsharif.onlineexam.config.LocaleConfiguration;
+import ir.maktabsharif.onlineexam.geoip.GeoIpService;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.LocaleResolver;
+import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request locale cost of {@link LocaleConfiguration}: the resolver DispatcherServlet
+ * runs on every request, and the change interceptor that runs on {@code /change-locale}.
+ * Each invocation builds a fresh mock request, because the resolver caches its answer
+ * on the request; {@link #newRequest} measures that part on its own. GeoIP is not
+ * loaded, so the visitor default comes from Accept-Language.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocaleResolutionBenchmark {
+
+    /** Value of the lang cookie, or of the lang parameter for {@link #changeLocale}; "none" sends neither. */
+    @Param({"fa", "de", "none"})
+    private String lang;
+
+    private LocaleResolver localeResolver;
+    private LocaleChangeInterceptor localeChangeInterceptor;
+
+    @Setup
+    public void setUp() {
+        LocaleConfiguration configuration = new LocaleConfiguration(new GeoIpService());
+        localeResolver = configuration.localeResolver();
+        localeChangeInterceptor = configuration.localeChangeInterceptor();
+    }
+
+    @Benchmark
+    public MockHttpServletRequest newRequest() {
+        return request();
+    }
+
+    @Benchmark
+    public Locale resolveLocale() {
+        MockHttpServletRequest request = request();
+        if (!lang.equals("none")) {
+            request.setCookies(new Cookie("lang", lang));
+        }
+        return localeResolver.resolveLocale(request);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse changeLocale() throws Exception {
+        MockHttpServletRequest request = request();
+        request.setRequestURI("/change-locale");
+        request.setAttribute(DispatcherServlet.LOCALE_RESOLVER_ATTRIBUTE, localeResolver);
+        if (!lang.equals("none")) {
+            request.setParameter("lang", lang);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        localeChangeInterceptor.preHandle(request, response, new Object());
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/dashboard");
+        request.setRemoteAddr("192.0.2.10");
+        request.addHeader("Accept-Language", "de-DE,fa;q=0.8,en;q=0.5");
+        return request;
+    }
+}
@@ -0,0 +1,63 @@
+package ir.maktabsharif.onlineexam.benchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.MessageSource;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message lookups through the application's {@code PrecompiledMessageSource} and,
+ * for comparison, the {@code ReloadableResourceBundleMessageSource} it replaced:
+ * {@code reloadable} with the former cache time of 0, which re-checks the bundle files
+ * on every lookup, and {@code reloadable-cached} with -1, which caches them forever.
+ * {@code fa-IR} is a locale with a region that only the language maps to a bundle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageSourceBenchmark {
+
+    @Param({"precompiled", "reloadable", "reloadable-cached"})
+    private String source;
+
+    @Param({"en", "fa", "fa-IR"})
+    private String language;
+
+    private MessageSource messageSource;
+    private Locale locale;
+    private Object[] arguments;
+
+    @Setup
+    public void setUp() {
+        messageSource = switch (source) {
+            case "precompiled" -> BenchmarkMessageSources.precompiled();
+            case "reloadable" -> BenchmarkMessageSources.reloadable(0);
+            case "reloadable-cached" -> BenchmarkMessageSources.reloadable(-1);
+            default -> throw new IllegalArgumentException(source);
+        };
+        locale = Locale.forLanguageTag(language);
+        arguments = new Object[]{"student@example.com"};
+    }
+
+    @Benchmark
+    public String withoutArguments() {
+        return messageSource.getMessage("users.firstName", null, locale);
+    }
+
+    @Benchmark
+    public String withArguments() {
+        return messageSource.getMessage("password.verify.description", arguments, locale);
+    }
+}
@@ -0,0 +1,78 @@
+package ir.maktabsharif.onlineexam.benchmark;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis value (de)serialization of a password reset code: the plain string that
+ * {@code PasswordResetServiceImpl} stores now, against the JSON document with creation
+ * and expiry times that it stored in the shared hash before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordResetCodeBenchmark {
+
+    private StringRedisSerializer stringSerializer;
+    private GenericJackson2JsonRedisSerializer jsonSerializer;
+    private String code;
+    private LegacyResetCode legacyCode;
+    private byte[] serializedCode;
+    private byte[] serializedLegacyCode;
+
+    @Setup
+    public void setUp() {
+        stringSerializer = StringRedisSerializer.UTF_8;
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+
+        code = "482913";
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 10, 0);
+        legacyCode = new LegacyResetCode(code, createdAt, createdAt.plusMinutes(5));
+        serializedCode = stringSerializer.serialize(code);
+        serializedLegacyCode = jsonSerializer.serialize(legacyCode);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return stringSerializer.serialize(code);
+    }
+
+    @Benchmark
+    public String deserialize() {
+        return stringSerializer.deserialize(serializedCode);
+    }
+
+    @Benchmark
+    public byte[] serializeLegacyJson() {
+        return jsonSerializer.serialize(legacyCode);
+    }
+
+    @Benchmark
+    public Object deserializeLegacyJson() {
+        return jsonSerializer.deserialize(serializedLegacyCode);
+    }
+
+    /** Shape of the removed {@code PasswordResetCode} DTO. */
+    public record LegacyResetCode(String code, LocalDateTime createdAt, LocalDateTime expiresAt) {
+    }
+}
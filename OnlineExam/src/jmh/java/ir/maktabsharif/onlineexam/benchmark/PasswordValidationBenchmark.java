@@ -0,0 +1,35 @@
+package ir.maktabsharif.onlineexam.benchmark;
+import ir.maktabsharif.onlineexam.util.PasswordValidationUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PasswordValidationUtil#validate(String)} as run on every registration and
+ * password change. The passwords cover a valid one, which goes through every rule,
+ * and ones that stop at the first and the last pattern rule.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordValidationBenchmark {
+
+    @Param({"Str0ng!Passw0rd", "lowercase-only-1!", "NoSpecialChar123"})
+    private String password;
+
+    @Benchmark
+    public String validate() {
+        return PasswordValidationUtil.validate(password);
+    }
+}
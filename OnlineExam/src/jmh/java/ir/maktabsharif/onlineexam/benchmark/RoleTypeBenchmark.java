@@ -0,0 +1,34 @@
+package ir.maktabsharif.onlineexam.benchmark;
+import ir.maktabsharif.onlineexam.model.enums.RoleType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RoleType#fromString(String)} for an exact name, a lower-case name and an
+ * unknown name; the last one is the path that ends in a caught exception.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoleTypeBenchmark {
+
+    @Param({"ROLE_STUDENT", "role_teacher", "ROLE_GUEST"})
+    private String roleName;
+
+    @Benchmark
+    public RoleType fromString() {
+        return RoleType.fromString(roleName);
+    }
+}
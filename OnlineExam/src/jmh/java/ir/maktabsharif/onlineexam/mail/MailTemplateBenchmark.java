@@ -0,0 +1,153 @@
+package ir.maktabsharif.onlineexam.mail;
+import ir.maktabsharif.onlineexam.benchmark.BenchmarkMessageSources;
+import ir.maktabsharif.onlineexam.model.entity.User;
+import ir.maktabsharif.onlineexam.model.enums.MailType;
+import ir.maktabsharif.onlineexam.model.helper.UserUpdateChanges;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.MessageSource;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Renders each of the five templates under {@code templates/mail} into a MIME message,
+ * once through {@link MailComposer} and once the way messages were built before it
+ * cached the per-locale parts: a fresh context with the base URL, and the application
+ * title and subject looked up per message. Both use the same cached template resolver,
+ * so the difference is the per-message lookups and context setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailTemplateBenchmark {
+
+    private static final String BASE_URL = "http://localhost:8069";
+
+    @Param({"USER_APPROVAL", "USER_REJECTION", "USER_UPDATE", "USER_DELETION", "PASSWORD_RESET"})
+    private MailType type;
+
+    @Param({"en", "fa"})
+    private String language;
+
+    @Param({"reloadable", "precompiled"})
+    private String messages;
+
+    private SpringTemplateEngine templateEngine;
+    private MessageSource messageSource;
+    private MailComposer mailComposer;
+    private Session session;
+    private Locale locale;
+    private Consumer<Context> variables;
+
+    @Setup
+    public void setUp() {
+        messageSource = "precompiled".equals(messages)
+                ? BenchmarkMessageSources.precompiled()
+                : BenchmarkMessageSources.reloadable(0);
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+
+        mailComposer = new MailComposer(templateEngine, messageSource);
+        ReflectionTestUtils.setField(mailComposer, "fromEmail", "noreply@example.com");
+        ReflectionTestUtils.setField(mailComposer, "serverPort", "8069");
+        mailComposer.init();
+
+        session = Session.getInstance(new Properties());
+        locale = Locale.forLanguageTag(language);
+        variables = variablesFor(type);
+    }
+
+    @Benchmark
+    public MimeMessage mailComposer() throws Exception {
+        MimeMessage message = new MimeMessage(session);
+        mailComposer.compose(type, "student@example.com", locale, variables).getPreparator().prepare(message);
+        return message;
+    }
+
+    @Benchmark
+    public MimeMessage perMessageLookups() throws Exception {
+        MimeMessage message = new MimeMessage(session);
+        MimeMessageHelper helper = new MimeMessageHelper(
+                message,
+                MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
+                StandardCharsets.UTF_8.name()
+        );
+        Context context = new Context(locale);
+        variables.accept(context);
+        context.setVariable("baseUrl", BASE_URL);
+        context.setVariable("applicationTitle", messageSource.getMessage("application.title", null, locale));
+
+        String html = templateEngine.process(type.getTemplate(), context);
+
+        helper.setTo("student@example.com");
+        helper.setSubject(messageSource.getMessage(type.getSubjectKey(), null, locale));
+        helper.setText(html, true);
+        helper.setFrom("noreply@example.com");
+        return message;
+    }
+
+    /** Per-message variables as EmailServiceImpl sets them for each mail type. */
+    private static Consumer<Context> variablesFor(MailType type) {
+        User user = User.builder()
+                .username("s.ahmadi")
+                .firstName("Sara")
+                .lastName("Ahmadi")
+                .email("student@example.com")
+                .build();
+        return switch (type) {
+            case USER_APPROVAL -> context -> context.setVariable("user", user);
+            case USER_REJECTION -> context -> {
+                context.setVariable("user", user);
+                context.setVariable("rejectionReason", "Incomplete documents");
+            };
+            case USER_UPDATE -> {
+                UserUpdateChanges changes = UserUpdateChanges.builder().build();
+                changes.addChange("First Name", "Sara", "Sarah");
+                changes.addChange("Last Name", "Ahmadi", "Ahmadi-Rad");
+                yield context -> {
+                    context.setVariable("user", user);
+                    context.setVariable("changes", changes);
+                };
+            }
+            case USER_DELETION -> context -> {
+                context.setVariable("user", user);
+                context.setVariable("deletionReason", "Account closed on request");
+            };
+            case PASSWORD_RESET -> context -> {
+                context.setVariable("code", "482913");
+                context.setVariable("expirationMinutes", 5);
+            };
+        };
+    }
+}
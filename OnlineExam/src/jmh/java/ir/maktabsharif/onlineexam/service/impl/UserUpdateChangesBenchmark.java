@@ -0,0 +1,65 @@
+package ir.maktabsharif.onlineexam.service.impl;
+import ir.maktabsharif.onlineexam.benchmark.BenchmarkMessageSources;
+import ir.maktabsharif.onlineexam.model.entity.User;
+import ir.maktabsharif.onlineexam.model.helper.UserUpdateChanges;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The change diffing behind {@link UserServiceImpl#updateUserWithChanges}: comparing the
+ * submitted fields with the stored user, resolving the field labels and collecting the
+ * {@link UserUpdateChanges}. Lives in the service package to reach
+ * {@code applyChanges}; the repository and mail outbox are left out, and passwords are
+ * "encoded" with a no-op encoder so BCrypt does not hide the diffing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserUpdateChangesBenchmark {
+
+    @Param({"en", "fa"})
+    private String language;
+
+    private UserServiceImpl userService;
+
+    @Setup
+    public void setUp() {
+        userService = new UserServiceImpl(null, null, null, null, NoOpPasswordEncoder.getInstance(),
+                BenchmarkMessageSources.precompiled(), null, null);
+        LocaleContextHolder.setLocale(Locale.forLanguageTag(language));
+    }
+
+    @Benchmark
+    public UserUpdateChanges nameAndPassword() {
+        User user = User.builder().firstName("Sara").lastName("Ahmadi").password("old").build();
+        User updated = User.builder().firstName("Sarah").lastName("Ahmadi").password("Str0ng!Passw0rd").build();
+        UserUpdateChanges changes = UserUpdateChanges.builder().build();
+        userService.applyChanges(user, updated, changes);
+        return changes;
+    }
+
+    @Benchmark
+    public UserUpdateChanges unchanged() {
+        User user = User.builder().firstName("Sara").lastName("Ahmadi").password("old").build();
+        User updated = User.builder().firstName("Sara").lastName("Ahmadi").build();
+        UserUpdateChanges changes = UserUpdateChanges.builder().build();
+        userService.applyChanges(user, updated, changes);
+        return changes;
+    }
+}
@@ -0,0 +1,117 @@
+package ir.maktabsharif.onlineexam.attempt;
+import ir.maktabsharif.onlineexam.attempt.ExamSessionStore.ClaimedAnswers;
+import ir.maktabsharif.onlineexam.model.dto.SavedAnswer;
+import ir.maktabsharif.onlineexam.repository.AttemptAnswerJdbcRepository;
+import ir.maktabsharif.onlineexam.repository.AttemptAnswerJdbcRepository.AnswerRow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind worker for exam answers. Autosaves only touch Redis; this worker
+ * periodically claims the dirty answer hashes of up to {@code batchSize} attempts
+ * and writes them to Postgres in one JDBC batch. Attempt ids are popped
+ * atomically from the dirty set, so several nodes can flush side by side.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnswerFlusher {
+
+    private final ExamSessionStore examSessionStore;
+    private final AttemptAnswerJdbcRepository attemptAnswerJdbcRepository;
+
+    @Value("${app.exam.flush.interval-ms:5000}")
+    private long flushIntervalMillis;
+
+    @Value("${app.exam.flush.batch-size:200}")
+    private int batchSize;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exam-answer-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::drain, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        scheduler.shutdown();
+        if (scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+            drain();
+        }
+    }
+
+    /**
+     * Writes every answer of one attempt, used when the attempt ends. Rows already
+     * flushed are left alone by the {@code updated_at} guard of the upsert.
+     */
+    public void flushAll(Long attemptId) {
+        Map<Long, SavedAnswer> answers = examSessionStore.getAnswers(attemptId);
+        List<AnswerRow> rows = new ArrayList<>(answers.size());
+        addRows(rows, attemptId, answers);
+        if (!rows.isEmpty()) {
+            attemptAnswerJdbcRepository.upsertAnswers(rows);
+        }
+    }
+
+    private void drain() {
+        try {
+            int flushed;
+            do {
+                flushed = flushBatch();
+            } while (flushed == batchSize);
+        } catch (Exception e) {
+            log.error("Error flushing exam answers", e);
+        }
+    }
+
+    private int flushBatch() {
+        List<Long> attemptIds = examSessionStore.popDirtyAttempts(batchSize);
+        if (attemptIds.isEmpty()) {
+            return 0;
+        }
+
+        List<ClaimedAnswers> claims = new ArrayList<>(attemptIds.size());
+        List<AnswerRow> rows = new ArrayList<>();
+        for (Long attemptId : attemptIds) {
+            examSessionStore.claimDirty(attemptId).ifPresent(claimed -> {
+                claims.add(claimed);
+                addRows(rows, attemptId, claimed.answers());
+            });
+        }
+
+        try {
+            if (!rows.isEmpty()) {
+                attemptAnswerJdbcRepository.upsertAnswers(rows);
+            }
+            claims.forEach(examSessionStore::release);
+            log.debug("Flushed {} answers of {} attempts", rows.size(), claims.size());
+        } catch (Exception e) {
+            log.error("Error writing {} answers of {} attempts, keeping them for the next flush",
+                    rows.size(), claims.size(), e);
+            claims.forEach(examSessionStore::restore);
+            return 0;
+        }
+        return attemptIds.size();
+    }
+
+    private void addRows(List<AnswerRow> rows, Long attemptId, Map<Long, SavedAnswer> answers) {
+        answers.forEach((questionId, answer) ->
+                rows.add(new AnswerRow(attemptId, questionId, answer.getAnswer(), answer.getSavedAt())));
+    }
+}
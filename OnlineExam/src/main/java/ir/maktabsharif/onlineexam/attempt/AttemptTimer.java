@@ -0,0 +1,154 @@
+package ir.maktabsharif.onlineexam.attempt;
+import ir.maktabsharif.onlineexam.model.dto.AttemptDeadline;
+import ir.maktabsharif.onlineexam.model.enums.AttemptStatus;
+import ir.maktabsharif.onlineexam.repository.ExamAttemptRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Server-side deadline enforcement for exam attempts. Every running attempt has one
+ * entry in a {@link TimingWheel}; a single ticking thread collects the expired ones and
+ * hands them to a small pool that auto-submits them. The wheel is rebuilt from
+ * {@code exam_attempts} at startup, and a periodic sweep of overdue rows catches
+ * attempts scheduled on another node that went away.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttemptTimer {
+
+    private final ExamAttemptRepository examAttemptRepository;
+
+    @Value("${app.exam.timer.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${app.exam.timer.wheel-size:4096}")
+    private int wheelSize;
+
+    @Value("${app.exam.timer.grace-ms:2000}")
+    private long graceMillis;
+
+    @Value("${app.exam.timer.workers:4}")
+    private int workers;
+
+    @Value("${app.exam.timer.sweep-interval-ms:60000}")
+    private long sweepIntervalMillis;
+
+    @Value("${app.exam.timer.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    private TimingWheel wheel;
+    private ScheduledExecutorService ticker;
+    private ExecutorService expiryPool;
+    private volatile Consumer<Long> expiryHandler = attemptId -> { };
+
+    @PostConstruct
+    void start() {
+        wheel = new TimingWheel(tickMillis, wheelSize, System.currentTimeMillis());
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exam-attempt-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCounter = new AtomicInteger();
+        expiryPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "exam-attempt-expiry-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        ticker.scheduleWithFixedDelay(this::sweep, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        ticker.shutdownNow();
+        expiryPool.shutdown();
+        expiryPool.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void rebuild() {
+        List<AttemptDeadline> running = examAttemptRepository.findDeadlinesByStatus(AttemptStatus.IN_PROGRESS);
+        running.forEach(attempt -> schedule(attempt.getAttemptId(), attempt.getDeadline()));
+        log.info("Attempt timer rebuilt with {} running attempts", running.size());
+    }
+
+    public void onExpiry(Consumer<Long> handler) {
+        this.expiryHandler = handler;
+    }
+
+    public void schedule(Long attemptId, LocalDateTime deadline) {
+        long deadlineMillis = deadline.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        synchronized (wheel) {
+            wheel.schedule(attemptId, deadlineMillis + graceMillis);
+        }
+    }
+
+    public void cancel(Long attemptId) {
+        synchronized (wheel) {
+            wheel.cancel(attemptId);
+        }
+    }
+
+    public int getScheduledCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private void tick() {
+        try {
+            List<Long> expired;
+            synchronized (wheel) {
+                expired = wheel.advance(System.currentTimeMillis());
+            }
+            expired.forEach(this::expire);
+        } catch (Exception e) {
+            log.error("Error advancing attempt timer", e);
+        }
+    }
+
+    private void sweep() {
+        try {
+            LocalDateTime before = LocalDateTime.now().minusNanos(graceMillis * 1_000_000);
+            List<Long> overdue = examAttemptRepository.findOverdueIds(AttemptStatus.IN_PROGRESS, before,
+                    PageRequest.of(0, sweepBatchSize));
+            if (!overdue.isEmpty()) {
+                log.info("Sweeping {} overdue attempts", overdue.size());
+                overdue.forEach(attemptId -> {
+                    cancel(attemptId);
+                    expire(attemptId);
+                });
+            }
+        } catch (Exception e) {
+            log.error("Error sweeping overdue attempts", e);
+        }
+    }
+
+    private void expire(Long attemptId) {
+        expiryPool.execute(() -> {
+            try {
+                expiryHandler.accept(attemptId);
+            } catch (Exception e) {
+                log.error("Error auto-submitting attempt {}", attemptId, e);
+            }
+        });
+    }
+}
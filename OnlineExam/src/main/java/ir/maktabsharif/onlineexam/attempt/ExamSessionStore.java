@@ -0,0 +1,202 @@
+package ir.maktabsharif.onlineexam.attempt;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.maktabsharif.onlineexam.model.dto.ExamSession;
+import ir.maktabsharif.onlineexam.model.dto.SavedAnswer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Redis-side state of running exam attempts.
+ * <ul>
+ *     <li>{@code exam_attempt:{id}} - the {@link ExamSession}</li>
+ *     <li>{@code exam_attempt:{id}:answers} - every answer of the attempt, by question id</li>
+ *     <li>{@code exam_attempt:{id}:dirty} - answers saved since the last flush</li>
+ *     <li>{@code exam_attempt:dirty} - ids of attempts that have a dirty hash</li>
+ * </ul>
+ * All keys expire a grace period after the attempt deadline.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExamSessionStore {
+
+    private static final String KEY_PREFIX = "exam_attempt:";
+    private static final String DIRTY_ATTEMPTS = KEY_PREFIX + "dirty";
+
+    /*
+     * KEYS: session, answers hash, dirty hash, dirty attempt set.
+     * ARGV: question id, answer, expiry in epoch seconds, attempt id.
+     * Arguments go through the template's JSON serializer, which writes the
+     * question id as a bare number, the same bytes the hash key serializer writes.
+     */
+    private static final RedisScript<Long> SAVE_ANSWER_SCRIPT = RedisScript.of("""
+            local raw = redis.call('GET', KEYS[1])
+            if not raw then
+              return 0
+            end
+            local session = cjson.decode(raw)
+            local clock = redis.call('TIME')
+            local now = tonumber(clock[1]) * 1000 + math.floor(tonumber(clock[2]) / 1000)
+            if session.status ~= 'IN_PROGRESS' or now >= session.deadlineMillis then
+              return 0
+            end
+            redis.call('HSET', KEYS[2], ARGV[1], ARGV[2])
+            redis.call('HSET', KEYS[3], ARGV[1], ARGV[2])
+            redis.call('EXPIREAT', KEYS[2], ARGV[3])
+            redis.call('EXPIREAT', KEYS[3], ARGV[3])
+            redis.call('SADD', KEYS[4], ARGV[4])
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.exam.session-grace-minutes:60}")
+    private long sessionGraceMinutes;
+
+    public void open(ExamSession session, Map<Long, SavedAnswer> answers) {
+        Instant expiresAt = expiresAt(session);
+        Map<String, Object> answerEntries = new HashMap<>();
+        answers.forEach((questionId, answer) -> answerEntries.put(questionId.toString(), answer));
+
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                operations.opsForValue().set(sessionKey(session.getAttemptId()), session,
+                        Duration.between(Instant.now(), expiresAt));
+                if (!answerEntries.isEmpty()) {
+                    operations.opsForHash().putAll(answersKey(session.getAttemptId()), answerEntries);
+                    operations.expireAt(answersKey(session.getAttemptId()), expiresAt);
+                }
+                return null;
+            }
+        });
+    }
+
+    public Optional<ExamSession> find(Long attemptId) {
+        Object raw = redisTemplate.opsForValue().get(sessionKey(attemptId));
+        if (raw == null) {
+            return Optional.empty();
+        }
+        return Optional.of(raw instanceof ExamSession session ? session : objectMapper.convertValue(raw, ExamSession.class));
+    }
+
+    public void update(ExamSession session) {
+        Duration ttl = Duration.between(Instant.now(), expiresAt(session));
+        if (!ttl.isNegative()) {
+            redisTemplate.opsForValue().set(sessionKey(session.getAttemptId()), session, ttl);
+        }
+    }
+
+    /**
+     * Saves one answer in a single round trip: the answer goes into the full answer
+     * hash and the dirty hash, and the attempt is queued for the flusher. The script
+     * first checks the session in Redis, so an answer racing a submit or expiry is
+     * refused once the session has left {@code IN_PROGRESS} or passed its deadline,
+     * and can never land after the final flush. Returns false when refused.
+     */
+    public boolean saveAnswer(ExamSession session, Long questionId, String answer) {
+        Long attemptId = session.getAttemptId();
+        SavedAnswer saved = new SavedAnswer(answer, System.currentTimeMillis());
+        Long saveCount = redisTemplate.execute(SAVE_ANSWER_SCRIPT,
+                List.of(sessionKey(attemptId), answersKey(attemptId), dirtyKey(attemptId), DIRTY_ATTEMPTS),
+                questionId, saved, expiresAt(session).getEpochSecond(), attemptId.toString());
+        return saveCount != null && saveCount > 0;
+    }
+
+    public Map<Long, SavedAnswer> getAnswers(Long attemptId) {
+        return toAnswers(redisTemplate.opsForHash().entries(answersKey(attemptId)));
+    }
+
+    public List<Long> popDirtyAttempts(int count) {
+        List<Object> ids = redisTemplate.opsForSet().pop(DIRTY_ATTEMPTS, count);
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream().map(id -> Long.valueOf(id.toString())).toList();
+    }
+
+    public void markDirty(Collection<Long> attemptIds) {
+        if (!attemptIds.isEmpty()) {
+            redisTemplate.opsForSet().add(DIRTY_ATTEMPTS, attemptIds.stream().map(Object::toString).toArray());
+        }
+    }
+
+    /**
+     * Atomically moves the dirty hash of an attempt to a key owned by the caller,
+     * so answers saved while the flush runs start a new dirty hash.
+     */
+    public Optional<ClaimedAnswers> claimDirty(Long attemptId) {
+        String claimKey = dirtyKey(attemptId) + ":" + UUID.randomUUID();
+        try {
+            redisTemplate.rename(dirtyKey(attemptId), claimKey);
+        } catch (DataAccessException e) {
+            // The dirty hash is gone: another flush already took it.
+            return Optional.empty();
+        }
+        return Optional.of(new ClaimedAnswers(attemptId, claimKey,
+                toAnswers(redisTemplate.opsForHash().entries(claimKey))));
+    }
+
+    public void release(ClaimedAnswers claimed) {
+        redisTemplate.delete(claimed.key());
+    }
+
+    /**
+     * Puts claimed answers back after a failed flush. Answers saved in the
+     * meantime are newer and are kept.
+     */
+    public void restore(ClaimedAnswers claimed) {
+        String dirtyKey = dirtyKey(claimed.attemptId());
+        claimed.answers().forEach((questionId, answer) ->
+                redisTemplate.opsForHash().putIfAbsent(dirtyKey, questionId.toString(), answer));
+        markDirty(List.of(claimed.attemptId()));
+        release(claimed);
+    }
+
+    public void close(Long attemptId) {
+        redisTemplate.delete(List.of(sessionKey(attemptId), answersKey(attemptId)));
+    }
+
+    private Map<Long, SavedAnswer> toAnswers(Map<Object, Object> entries) {
+        Map<Long, SavedAnswer> answers = new HashMap<>();
+        entries.forEach((questionId, raw) -> answers.put(Long.valueOf(questionId.toString()),
+                raw instanceof SavedAnswer saved ? saved : objectMapper.convertValue(raw, SavedAnswer.class)));
+        return answers;
+    }
+
+    private Instant expiresAt(ExamSession session) {
+        return Instant.ofEpochMilli(session.getDeadlineMillis()).plus(Duration.ofMinutes(sessionGraceMinutes));
+    }
+
+    private static String sessionKey(Long attemptId) {
+        return KEY_PREFIX + attemptId;
+    }
+
+    private static String answersKey(Long attemptId) {
+        return KEY_PREFIX + attemptId + ":answers";
+    }
+
+    private static String dirtyKey(Long attemptId) {
+        return KEY_PREFIX + attemptId + ":dirty";
+    }
+
+    public record ClaimedAnswers(Long attemptId, String key, Map<Long, SavedAnswer> answers) {
+    }
+}
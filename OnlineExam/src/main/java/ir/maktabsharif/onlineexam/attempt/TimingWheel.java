@@ -0,0 +1,114 @@
+package ir.maktabsharif.onlineexam.attempt;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel keyed by a long id. Scheduling and cancelling are O(1):
+ * each timeout sits in a doubly linked bucket chosen by its deadline tick, and an
+ * index by id finds it again for cancellation. Timeouts further away than one
+ * rotation stay in their bucket and are skipped until their tick comes round.
+ * Not thread-safe on its own; {@link AttemptTimer} guards it.
+ */
+public class TimingWheel {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int mask;
+    private final Entry[] buckets;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new Entry[wheelSize];
+    }
+
+    /**
+     * Schedules {@code id} to expire at {@code deadlineMillis}, replacing any
+     * earlier timeout for the same id. Deadlines already in the past expire on the next tick.
+     */
+    public void schedule(long id, long deadlineMillis) {
+        cancel(id);
+        long deadlineTick = Math.max(ceilDiv(deadlineMillis - startMillis, tickMillis), currentTick + 1);
+        Entry entry = new Entry(id, deadlineTick);
+        int index = (int) (deadlineTick & mask);
+        entry.next = buckets[index];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        buckets[index] = entry;
+        entries.put(id, entry);
+    }
+
+    public boolean cancel(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMillis} and returns the ids whose deadline has passed.
+     */
+    public List<Long> advance(long nowMillis) {
+        List<Long> expired = new ArrayList<>();
+        long targetTick = (nowMillis - startMillis) / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            Entry entry = buckets[(int) (currentTick & mask)];
+            while (entry != null) {
+                Entry next = entry.next;
+                if (entry.deadlineTick <= currentTick) {
+                    unlink(entry);
+                    entries.remove(entry.id);
+                    expired.add(entry.id);
+                }
+                entry = next;
+            }
+        }
+        return expired;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void unlink(Entry entry) {
+        int index = (int) (entry.deadlineTick & mask);
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            buckets[index] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final long deadlineTick;
+        private Entry prev;
+        private Entry next;
+
+        private Entry(long id, long deadlineTick) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ir.maktabsharif.onlineexam.cache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ir.maktabsharif.onlineexam.model.dto.ExamQuestions;
+import ir.maktabsharif.onlineexam.model.dto.QuestionView;
+import ir.maktabsharif.onlineexam.model.entity.Question;
+import ir.maktabsharif.onlineexam.repository.QuestionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Per-exam question snapshots. All questions of an exam are loaded with one query
+ * the first time anyone asks for them, and every student taking the exam then reads
+ * the same immutable {@link ExamQuestions}. Concurrent misses for one exam wait on a
+ * single load instead of each querying the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuestionSnapshotCache implements MeterBinder {
+
+    private final QuestionRepository questionRepository;
+
+    @Value("${app.exam.questions.cache-size:1000}")
+    private long cacheSize;
+
+    @Value("${app.exam.questions.cache-ttl-minutes:30}")
+    private long cacheTtlMinutes;
+
+    private Cache<Long, ExamQuestions> snapshots;
+
+    @PostConstruct
+    void init() {
+        snapshots = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, snapshots, "exam.questions");
+    }
+
+    public ExamQuestions get(Long examId) {
+        return snapshots.get(examId, this::load);
+    }
+
+    /**
+     * Drops the snapshot of an exam once the current transaction has completed, so the
+     * next reader loads the committed questions.
+     */
+    public void invalidate(Long examId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            snapshots.invalidate(examId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                snapshots.invalidate(examId);
+            }
+        });
+    }
+
+    private ExamQuestions load(Long examId) {
+        List<QuestionView> questions = questionRepository.findByExamId(examId).stream()
+                .map(this::toView)
+                .toList();
+        return new ExamQuestions(examId, questions);
+    }
+
+    private QuestionView toView(Question question) {
+        return new QuestionView(question.getId(), question.getType(), question.getText(),
+                question.getOptions() == null ? List.of() : List.copyOf(question.getOptions()),
+                question.getCorrectOption(), question.getScore());
+    }
+}
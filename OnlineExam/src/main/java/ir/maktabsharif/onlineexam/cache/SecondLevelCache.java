@@ -0,0 +1,124 @@
+package ir.maktabsharif.onlineexam.cache;
+import ir.maktabsharif.onlineexam.model.entity.Course;
+import ir.maktabsharif.onlineexam.model.entity.User;
+import ir.maktabsharif.onlineexam.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Invalidation hooks and statistics for the Hibernate second-level cache.
+ * Changes made through the persistence context keep the cache in sync on their own,
+ * query results included, through the update-timestamps region; these hooks are for
+ * writes that bypass it, such as JDBC batch inserts and native bulk updates. After a
+ * bulk user write only the cached user-by-username results are dropped, so a login
+ * never sees a stale status while other cached queries stay warm. Evictions requested
+ * inside a transaction run once it completes, so a concurrent reader cannot put the
+ * old state back before the write is visible.
+ *
+ * <p>Statistics are only collected when {@code hibernate.generate_statistics} is on
+ * ({@code APP_HIBERNATE_STATISTICS}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCache {
+
+    private static final String USER_ROLES = User.class.getName() + ".roles";
+    private static final String COURSE_STUDENTS = Course.class.getName() + ".students";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evictUsers(Collection<Long> userIds) {
+        afterCommit(() -> {
+            for (Long userId : userIds) {
+                cache().evictEntityData(User.class, userId);
+                cache().evictCollectionData(USER_ROLES, userId);
+            }
+            cache().evictQueryRegion(UserRepository.USERNAME_QUERY_REGION);
+        });
+    }
+
+    public void evictCourse(Long courseId) {
+        afterCommit(() -> {
+            cache().evictEntityData(Course.class, courseId);
+            cache().evictCollectionData(COURSE_STUDENTS, courseId);
+        });
+    }
+
+    public void evictQueries() {
+        afterCommit(() -> cache().evictQueryRegions());
+    }
+
+    public void evictAll() {
+        afterCommit(() -> {
+            cache().evictAllRegions();
+            log.info("Second-level cache cleared");
+        });
+    }
+
+    public SecondLevelCacheStats getStats() {
+        Statistics statistics = sessionFactory().getStatistics();
+        List<CacheRegionStats> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .map(name -> toRegionStats(name, statistics.getCacheRegionStatistics(name)))
+                .filter(Objects::nonNull)
+                .toList();
+
+        return SecondLevelCacheStats.builder()
+                .statisticsEnabled(statistics.isStatisticsEnabled())
+                .hits(statistics.getSecondLevelCacheHitCount())
+                .misses(statistics.getSecondLevelCacheMissCount())
+                .puts(statistics.getSecondLevelCachePutCount())
+                .queryCacheHits(statistics.getQueryCacheHitCount())
+                .queryCacheMisses(statistics.getQueryCacheMissCount())
+                .queryCachePuts(statistics.getQueryCachePutCount())
+                .regions(regions)
+                .build();
+    }
+
+    private CacheRegionStats toRegionStats(String name, CacheRegionStatistics region) {
+        if (region == null) {
+            return null;
+        }
+        long lookups = region.getHitCount() + region.getMissCount();
+        return CacheRegionStats.builder()
+                .region(name)
+                .hits(region.getHitCount())
+                .misses(region.getMissCount())
+                .puts(region.getPutCount())
+                .hitRatio(lookups == 0 ? 0 : (double) region.getHitCount() / lookups)
+                .build();
+    }
+
+    private void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                eviction.run();
+            }
+        });
+    }
+
+    private Cache cache() {
+        return sessionFactory().getCache();
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,21 @@
+package ir.maktabsharif.onlineexam.cache;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SecondLevelCacheStats {
+    private boolean statisticsEnabled;
+    private long hits;
+    private long misses;
+    private long puts;
+    private long queryCacheHits;
+    private long queryCacheMisses;
+    private long queryCachePuts;
+    private List<CacheRegionStats> regions;
+}
@@ -4,9 +4,12 @@ import ir.maktabsharif.onlineexam.model.entity.User;
 import ir.maktabsharif.onlineexam.model.enums.UserStatus;
 import ir.maktabsharif.onlineexam.repository.RoleRepository;
 import ir.maktabsharif.onlineexam.repository.UserRepository;
+import ir.maktabsharif.onlineexam.security.RoleRegistry;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import java.util.Set;
 
@@ -14,8 +17,9 @@ import java.util.Set;
 public class DataInitializer {
 
     @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
     public CommandLineRunner initData(RoleRepository roleRepository, UserRepository userRepository,
-                                      PasswordEncoder passwordEncoder) {
+                                      PasswordEncoder passwordEncoder, RoleRegistry roleRegistry) {
         return args -> {
             Role adminRole = roleRepository.findByName("ROLE_ADMIN")
                     .orElseGet(() -> roleRepository.save(Role.builder().name("ROLE_ADMIN").build()));
@@ -26,6 +30,8 @@ public class DataInitializer {
             Role studentRole = roleRepository.findByName("ROLE_STUDENT")
                     .orElseGet(() -> roleRepository.save(Role.builder().name("ROLE_STUDENT").build()));
 
+            roleRegistry.load(roleRepository.findAll());
+
             if (userRepository.findByUsername("admin").isEmpty()) {
                 userRepository.save(User.builder()
                         .username("admin")
@@ -0,0 +1,58 @@
+package ir.maktabsharif.onlineexam.config;
+import ir.maktabsharif.onlineexam.cache.SecondLevelCache;
+import ir.maktabsharif.onlineexam.model.enums.UserStatus;
+import ir.maktabsharif.onlineexam.repository.LoadTestJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Seeds the users, courses and exams the exam-day load test (loadtest/exam-day.js)
+ * logs in as and browses. Only active under the {@code loadtest} profile and runs
+ * after {@link DataInitializer} has created the roles. All seeded users share one
+ * password, hashed once so seeding does not spend minutes in BCrypt.
+ */
+@Slf4j
+@Configuration
+@Profile("loadtest")
+public class LoadTestDataInitializer {
+
+    @Value("${app.loadtest.teachers:20}")
+    private int teachers;
+
+    @Value("${app.loadtest.students:2000}")
+    private int students;
+
+    @Value("${app.loadtest.courses:40}")
+    private int courses;
+
+    @Value("${app.loadtest.exams-per-course:3}")
+    private int examsPerCourse;
+
+    @Value("${app.loadtest.password:loadtest123}")
+    private String password;
+
+    @Bean
+    @Order
+    public CommandLineRunner initLoadTestData(LoadTestJdbcRepository loadTestJdbcRepository,
+                                              PasswordEncoder passwordEncoder,
+                                              SecondLevelCache secondLevelCache) {
+        return args -> {
+            if (loadTestJdbcRepository.isSeeded()) {
+                log.info("Load test data already present, skipping seeding");
+                return;
+            }
+            loadTestJdbcRepository.seed(teachers, students, courses, examsPerCourse,
+                    passwordEncoder.encode(password), UserStatus.APPROVED.ordinal());
+            // The rows are written with plain JDBC, which the second-level cache does not see.
+            secondLevelCache.evictAll();
+            log.info("Seeded load test data: {} teachers, {} students, {} courses, {} exams",
+                    teachers, students, courses, courses * examsPerCourse);
+        };
+    }
+}
@@ -1,75 +1,149 @@
 package ir.maktabsharif.onlineexam.config;
-import ir.maktabsharif.onlineexam.util.locale.LocaleContext;
-import ir.maktabsharif.onlineexam.util.locale.RequestLocaleHolder;
-import jakarta.annotation.PostConstruct;
-import org.springframework.beans.factory.ObjectProvider;
+import ir.maktabsharif.onlineexam.geoip.GeoIpService;
+import ir.maktabsharif.onlineexam.i18n.PrecompiledMessageSource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Lazy;
-import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.SimpleLocaleContext;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.i18n.CookieLocaleResolver;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
-import org.springframework.web.servlet.i18n.SessionLocaleResolver;
+import java.time.Duration;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
+/**
+ * Locale handling without sessions or request-scoped beans. The language is kept in a
+ * {@code lang} cookie written by {@code /change-locale}; DispatcherServlet resolves it
+ * once per request and exposes it through {@link org.springframework.context.i18n.LocaleContextHolder}.
+ * Visitors without the cookie get Persian when they come from one of
+ * {@code app.geoip.persian-countries}, otherwise the best match of their
+ * Accept-Language header, otherwise English. Only {@link #SUPPORTED_LOCALES} are ever
+ * stored or resolved: an unsupported or malformed {@code lang} parameter clears the
+ * cookie, and an unsupported cookie is ignored, so both fall back to that default.
+ */
 @Configuration
 public class LocaleConfiguration implements WebMvcConfigurer {
 
-    private final LanguageInterceptor languageInterceptor;
-    private final ObjectProvider<RequestLocaleHolder> provider;
+    public static final Locale ENGLISH = Locale.forLanguageTag("en");
+    public static final Locale PERSIAN = Locale.forLanguageTag("fa");
+    private static final List<Locale> SUPPORTED_LOCALES = List.of(ENGLISH, PERSIAN);
 
-    public LocaleConfiguration(@Lazy LanguageInterceptor languageInterceptor, 
-                               ObjectProvider<RequestLocaleHolder> provider) {
-        this.languageInterceptor = languageInterceptor;
-        this.provider = provider;
+    private final GeoIpService geoIpService;
+
+    @Value("${app.geoip.persian-countries:IR,AF}")
+    private Set<String> persianCountries;
+
+    @Value("${app.messages.watch:false}")
+    private boolean watchMessages;
+
+    public LocaleConfiguration(GeoIpService geoIpService) {
+        this.geoIpService = geoIpService;
     }
 
-    @Bean
-    public MessageSource messageSource() {
-        ReloadableResourceBundleMessageSource messageSource
-                = new ReloadableResourceBundleMessageSource();
-        messageSource.setBasenames("classpath:messages", "classpath:ValidationMessages");
-        messageSource.setDefaultEncoding("UTF-8");
-        messageSource.setCacheSeconds(0); 
-        messageSource.setFallbackToSystemLocale(false);
+    /**
+     * Bundles are read once; set {@code app.messages.watch} in development to pick up
+     * edits to the properties files without a restart.
+     */
+    @Bean(destroyMethod = "stopWatching")
+    public PrecompiledMessageSource messageSource(ApplicationEventPublisher eventPublisher) {
+        PrecompiledMessageSource messageSource = new PrecompiledMessageSource(
+                List.of("messages", "ValidationMessages"), SUPPORTED_LOCALES, eventPublisher);
+        if (watchMessages) {
+            messageSource.watch();
+        }
         return messageSource;
     }
 
     @Bean
     public LocaleResolver localeResolver() {
-        SessionLocaleResolver resolver = new SessionLocaleResolver();
-        resolver.setDefaultLocale(Locale.forLanguageTag("en"));
+        CookieLocaleResolver resolver = new CookieLocaleResolver("lang") {
+            @Override
+            protected Locale parseLocaleValue(String localeValue) {
+                return supported(super.parseLocaleValue(localeValue));
+            }
+
+            @Override
+            public void setLocaleContext(HttpServletRequest request, HttpServletResponse response,
+                                         LocaleContext localeContext) {
+                Locale locale = localeContext != null ? supported(localeContext.getLocale()) : null;
+                super.setLocaleContext(request, response, locale != null ? new SimpleLocaleContext(locale) : null);
+            }
+        };
+        resolver.setCookieMaxAge(Duration.ofDays(365));
+        resolver.setCookieHttpOnly(true);
+        resolver.setRejectInvalidCookies(true);
+        resolver.setDefaultLocaleFunction(this::visitorLocale);
         return resolver;
     }
 
     @Bean
     public LocaleChangeInterceptor localeChangeInterceptor() {
-        LocaleChangeInterceptor interceptor = new LocaleChangeInterceptor();
+        LocaleChangeInterceptor interceptor = new LocaleChangeInterceptor() {
+            @Override
+            protected Locale parseLocaleValue(String localeValue) {
+                try {
+                    return supported(super.parseLocaleValue(localeValue));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        };
         interceptor.setParamName("lang");
         interceptor.setIgnoreInvalidLocale(false);
         return interceptor;
     }
 
     @Bean
-    public LocalValidatorFactoryBean getValidator() {
+    public LocalValidatorFactoryBean getValidator(MessageSource messageSource) {
         LocalValidatorFactoryBean bean = new LocalValidatorFactoryBean();
-        bean.setValidationMessageSource(messageSource());
+        bean.setValidationMessageSource(messageSource);
         return bean;
     }
 
-    @PostConstruct
-    void initLocaleContext() {
-        LocaleContext.init(provider);
-    }
-
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(localeChangeInterceptor());
-        registry.addInterceptor(languageInterceptor);
+        registry.addInterceptor(localeChangeInterceptor()).addPathPatterns("/change-locale");
+    }
+
+    /** The supported locale with the same language, or null. */
+    static Locale supported(Locale locale) {
+        if (locale == null) {
+            return null;
+        }
+        for (Locale supported : SUPPORTED_LOCALES) {
+            if (supported.getLanguage().equals(locale.getLanguage())) {
+                return supported;
+            }
+        }
+        return null;
     }
-}
 
+    private Locale visitorLocale(HttpServletRequest request) {
+        boolean persianCountry = geoIpService.countryCode(request.getRemoteAddr())
+                .map(persianCountries::contains)
+                .orElse(false);
+        if (persianCountry) {
+            return PERSIAN;
+        }
+        if (request.getHeader("Accept-Language") == null) {
+            return ENGLISH;
+        }
+        for (var languages = request.getLocales(); languages.hasMoreElements(); ) {
+            Locale supported = supported(languages.nextElement());
+            if (supported != null) {
+                return supported;
+            }
+        }
+        return ENGLISH;
+    }
+}
@@ -0,0 +1,39 @@
+package ir.maktabsharif.onlineexam.config;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationPredicate;
+import ir.maktabsharif.onlineexam.metrics.MetricsSettings;
+import ir.maktabsharif.onlineexam.metrics.TimedDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Wraps the data source in a {@link TimedDataSource}. The registry and settings are
+     * looked up only when the data source is created, so this post-processor does not
+     * pull them into existence ahead of the other beans.
+     */
+    @Bean
+    public static BeanPostProcessor timedDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                 ObjectProvider<MetricsSettings> metricsSettings) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof TimedDataSource)) {
+                    return new TimedDataSource(dataSource, meterRegistry.getObject(), metricsSettings.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /** Skips the request timers of {@code http.server.requests} while metrics are turned off. */
+    @Bean
+    public ObservationPredicate metricsToggle(MetricsSettings metricsSettings) {
+        return (name, context) -> metricsSettings.isEnabled() || !name.startsWith("http.server");
+    }
+}
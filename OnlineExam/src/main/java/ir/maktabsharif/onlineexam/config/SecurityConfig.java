@@ -1,6 +1,9 @@
 package ir.maktabsharif.onlineexam.config;
+import ir.maktabsharif.onlineexam.ratelimit.RateLimitFilter;
 import ir.maktabsharif.onlineexam.security.CustomAuthenticationSuccessHandler;
 import ir.maktabsharif.onlineexam.security.CustomUserDetailsService;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -8,17 +11,21 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
     private final CustomAuthenticationSuccessHandler authenticationSuccessHandler;
+    private final RateLimitFilter rateLimitFilter;
 
     public SecurityConfig(CustomUserDetailsService userDetailsService,
-                         CustomAuthenticationSuccessHandler authenticationSuccessHandler) {
+                         CustomAuthenticationSuccessHandler authenticationSuccessHandler,
+                         RateLimitFilter rateLimitFilter) {
         this.userDetailsService = userDetailsService;
         this.authenticationSuccessHandler = authenticationSuccessHandler;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     @Bean
@@ -34,11 +41,22 @@ public class SecurityConfig {
         return authProvider;
     }
 
+    /** The rate limit filter runs inside the security chain only, not a second time as a servlet filter. */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
                         .requestMatchers("/", "/login", "/register", "/register/**",
                                         "/password-reset/**", "/change-locale", "/add-role").permitAll()
                         .requestMatchers("/admin/**").hasRole("ADMIN")
@@ -0,0 +1,77 @@
+package ir.maktabsharif.onlineexam.config;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in switch for virtual threads, driven by {@code spring.threads.virtual.enabled}.
+ * The same property makes Spring Boot run Tomcat request handling and the
+ * application task executor (async MVC, streaming exports) on virtual threads; this
+ * class extends it to the application's own I/O-bound worker pools.
+ *
+ * <p>The project compiles for Java 17, where virtual threads do not exist, so the
+ * factory is looked up reflectively and the setting only takes effect on a Java 21+
+ * runtime. On older runtimes it falls back to named daemon platform threads.
+ *
+ * <p>Pinning: the only {@code synchronized} blocks in the application guard the
+ * in-memory timing wheel of {@code AttemptTimer} and never block on I/O. Jakarta Mail's
+ * {@code SMTPTransport} synchronizes while sending, so each mail worker pins its carrier
+ * for the length of a batch; with a handful of mail workers that costs at most that many
+ * carriers. Run with {@code -Djdk.tracePinnedThreads=short} to check for others.
+ */
+@Slf4j
+@Component
+public class VirtualThreads {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean enabled;
+
+    private ThreadFactory virtualFactory;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        if (Runtime.version().feature() < 21) {
+            log.warn("Virtual threads were requested but the runtime is Java {}; using platform threads",
+                    Runtime.version().feature());
+            return;
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            virtualFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            log.info("Virtual threads enabled");
+        } catch (ReflectiveOperationException e) {
+            log.warn("Could not create a virtual thread factory; using platform threads", e);
+        }
+    }
+
+    public boolean isActive() {
+        return virtualFactory != null;
+    }
+
+    /**
+     * Thread factory for an I/O-bound worker pool: virtual threads when they are active,
+     * otherwise daemon platform threads named {@code prefix-1}, {@code prefix-2}, ...
+     */
+    public ThreadFactory threadFactory(String prefix) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadFactory delegate = virtualFactory;
+        return runnable -> {
+            Thread thread;
+            if (delegate != null) {
+                thread = delegate.newThread(runnable);
+            } else {
+                thread = new Thread(runnable);
+                thread.setDaemon(true);
+            }
+            thread.setName(prefix + "-" + threadCounter.incrementAndGet());
+            return thread;
+        };
+    }
+}
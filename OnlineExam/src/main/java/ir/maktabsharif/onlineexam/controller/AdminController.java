@@ -1,14 +1,21 @@
 package ir.maktabsharif.onlineexam.controller;
+import ir.maktabsharif.onlineexam.cache.SecondLevelCache;
+import ir.maktabsharif.onlineexam.cache.SecondLevelCacheStats;
+import ir.maktabsharif.onlineexam.metrics.MetricsSettings;
+import ir.maktabsharif.onlineexam.model.dto.UserPage;
 import ir.maktabsharif.onlineexam.model.entity.Role;
 import ir.maktabsharif.onlineexam.model.entity.User;
 import ir.maktabsharif.onlineexam.model.enums.UserStatus;
-import ir.maktabsharif.onlineexam.service.EmailService;
+import ir.maktabsharif.onlineexam.model.helper.UserUpdateChanges;
+import ir.maktabsharif.onlineexam.service.ExamStatisticsService;
 import ir.maktabsharif.onlineexam.service.UserService;
 import ir.maktabsharif.onlineexam.util.PasswordValidationUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,6 +28,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 @Controller
 @RequiredArgsConstructor
@@ -29,15 +37,58 @@ import java.util.Locale;
 public class AdminController {
 
     private final UserService userService;
-    private final EmailService emailService;
     private final MessageSource messageSource;
     private final UserDetailsService userDetailsService;
+    private final SecondLevelCache secondLevelCache;
+    private final ExamStatisticsService examStatisticsService;
+    private final MetricsSettings metricsSettings;
+
+    @GetMapping("/cache/stats")
+    @ResponseBody
+    public SecondLevelCacheStats cacheStats() {
+        return secondLevelCache.getStats();
+    }
+
+    @PostMapping("/statistics/rebuild")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> rebuildStatistics() {
+        boolean started = examStatisticsService.rebuildAllStatistics();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(Map.of("started", started));
+    }
+
+    @GetMapping("/metrics/settings")
+    @ResponseBody
+    public Map<String, Object> metricsSettings() {
+        return Map.of("enabled", metricsSettings.isEnabled(),
+                "slowQueryMillis", metricsSettings.getSlowQueryMillis());
+    }
+
+    @PostMapping("/metrics/settings")
+    @ResponseBody
+    public Map<String, Object> updateMetricsSettings(@RequestParam(required = false) Boolean enabled,
+                                                     @RequestParam(required = false) Long slowQueryMillis) {
+        if (enabled != null) {
+            metricsSettings.setEnabled(enabled);
+        }
+        if (slowQueryMillis != null) {
+            metricsSettings.setSlowQueryMillis(slowQueryMillis);
+        }
+        log.info("Metrics settings changed: enabled={}, slowQueryMillis={}",
+                metricsSettings.isEnabled(), metricsSettings.getSlowQueryMillis());
+        return metricsSettings();
+    }
 
     @GetMapping("/users")
     public String usersPage(@RequestParam(required = false) String roleName,
                            @RequestParam(required = false) String firstName,
                            @RequestParam(required = false) String lastName,
                            @RequestParam(required = false) String status,
+                           @RequestParam(required = false) String q,
+                           @RequestParam(defaultValue = "0") int page,
+                           @RequestParam(defaultValue = "50") int size,
+                           @RequestParam(required = false) Long after,
+                           @RequestParam(defaultValue = "false") boolean count,
                            Model model) {
         UserStatus userStatus = null;
         if (status != null && !status.isEmpty()) {
@@ -46,20 +97,15 @@ public class AdminController {
             } catch (IllegalArgumentException e) {
             }
         }
-        List<User> users;
-        if ((roleName != null && !roleName.isEmpty()) || 
-            (firstName != null && !firstName.isEmpty()) || 
-            (lastName != null && !lastName.isEmpty()) || 
-            userStatus != null) {
-            users = userService.searchUsers(roleName, firstName, lastName, userStatus);
-        } else {
-            users = userService.getAllUsers();
-        }
-        model.addAttribute("users", users);
+        UserPage userPage = userService.searchUsersPage(roleName, firstName, lastName, userStatus,
+                q, page, size, after, count);
+        model.addAttribute("users", userPage.getContent());
+        model.addAttribute("userPage", userPage);
         model.addAttribute("roleName", roleName);
         model.addAttribute("firstName", firstName);
         model.addAttribute("lastName", lastName);
         model.addAttribute("status", status);
+        model.addAttribute("q", q);
         return "admin/users";
     }
 
@@ -67,22 +113,79 @@ public class AdminController {
     public String approveUser(@PathVariable Long id, RedirectAttributes redirectAttributes) {
         Locale locale = LocaleContextHolder.getLocale();
         try {
-            User user = userService.approveUser(id);
+            userService.approveUser(id);
             String successMessage = messageSource.getMessage("users.approve.success.email", null, locale);
             redirectAttributes.addFlashAttribute("success", successMessage);
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/admin/users";
+    }
 
-            try {
-                emailService.sendUserApprovalEmail(user, locale);
-                log.info("Approval email sent to user {}", user.getEmail());
-            } catch (Exception e) {
-                log.error("Error sending email to {}", user.getEmail(), e);
-                String warningMessage = messageSource.getMessage("users.approve.success.email.error", 
-                    new Object[]{e.getMessage()}, locale);
-                redirectAttributes.addFlashAttribute("warning", warningMessage);
+    @PostMapping("/users/bulk-approve")
+    public String approveUsers(@RequestParam(required = false) String roleName,
+                               @RequestParam(required = false) String firstName,
+                               @RequestParam(required = false) String lastName,
+                               @RequestParam(required = false) String q,
+                               RedirectAttributes redirectAttributes) {
+        Locale locale = LocaleContextHolder.getLocale();
+        try {
+            int count = userService.approveUsers(roleName, firstName, lastName, q);
+            addBulkResult(redirectAttributes, count, "users.bulk.approve.success", locale);
+        } catch (Exception e) {
+            log.error("Error approving users in bulk", e);
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return redirectToUsers(redirectAttributes, roleName, firstName, lastName, q);
+    }
+
+    @PostMapping("/users/bulk-reject")
+    public String rejectUsers(@RequestParam(required = false) String roleName,
+                              @RequestParam(required = false) String firstName,
+                              @RequestParam(required = false) String lastName,
+                              @RequestParam(required = false) String q,
+                              @RequestParam String rejectionReason,
+                              RedirectAttributes redirectAttributes) {
+        Locale locale = LocaleContextHolder.getLocale();
+        try {
+            if (rejectionReason == null || rejectionReason.trim().isEmpty()) {
+                String errorMessage = messageSource.getMessage("users.reject.reason.required", null, locale);
+                redirectAttributes.addFlashAttribute("error", errorMessage);
+                return redirectToUsers(redirectAttributes, roleName, firstName, lastName, q);
             }
+            int count = userService.rejectUsers(roleName, firstName, lastName, q, rejectionReason.trim());
+            addBulkResult(redirectAttributes, count, "users.bulk.reject.success", locale);
         } catch (Exception e) {
+            log.error("Error rejecting users in bulk", e);
             redirectAttributes.addFlashAttribute("error", e.getMessage());
         }
+        return redirectToUsers(redirectAttributes, roleName, firstName, lastName, q);
+    }
+
+    private void addBulkResult(RedirectAttributes redirectAttributes, int count, String successKey, Locale locale) {
+        if (count == 0) {
+            redirectAttributes.addFlashAttribute("error", messageSource.getMessage("users.bulk.none", null, locale));
+        } else {
+            redirectAttributes.addFlashAttribute("success",
+                    messageSource.getMessage(successKey, new Object[]{count}, locale));
+        }
+    }
+
+    private String redirectToUsers(RedirectAttributes redirectAttributes,
+                                   String roleName, String firstName, String lastName, String q) {
+        if (roleName != null && !roleName.isEmpty()) {
+            redirectAttributes.addAttribute("roleName", roleName);
+        }
+        if (firstName != null && !firstName.isEmpty()) {
+            redirectAttributes.addAttribute("firstName", firstName);
+        }
+        if (lastName != null && !lastName.isEmpty()) {
+            redirectAttributes.addAttribute("lastName", lastName);
+        }
+        if (q != null && !q.isBlank()) {
+            redirectAttributes.addAttribute("q", q.trim());
+        }
+        redirectAttributes.addAttribute("status", UserStatus.PENDING.name());
         return "redirect:/admin/users";
     }
 
@@ -110,6 +213,7 @@ public class AdminController {
                     .reduce((a, b) -> a + ", " + b)
                     .orElse(notAssigned);
 
+            var changes = UserUpdateChanges.builder().build();
             String newRolesStr = null;
             if (roleNames != null && roleNames.length > 0) {
                 List<String> roleNameList = new ArrayList<>();
@@ -161,26 +265,12 @@ public class AdminController {
                 user.setPassword(password);
             }
 
-            var changes = userService.updateUserWithChanges(id, user);
-
             if (newRolesStr != null && !newRolesStr.equals(oldRolesStr)) {
                 String roleLabel = messageSource.getMessage("common.roles", null, locale);
                 changes.addChange(roleLabel, oldRolesStr, newRolesStr);
             }
 
-            if (changes.hasChanges()) {
-                try {
-                    User updatedUser = userService.findById(id);
-                    emailService.sendUserUpdateEmail(updatedUser, changes, locale);
-                    log.info("Update email sent to user {}", updatedUser.getEmail());
-                } catch (Exception e) {
-                    User updatedUser = userService.findById(id);
-                    log.error("Error sending update email to {}", updatedUser.getEmail(), e);
-                    String warningMessage = messageSource.getMessage("users.update.success.email.error", 
-                        new Object[]{e.getMessage()}, locale);
-                    redirectAttributes.addFlashAttribute("warning", warningMessage);
-                }
-            }
+            userService.updateUserWithChanges(id, user, changes);
 
             String successMessage = messageSource.getMessage("users.update.success", null, locale);
             redirectAttributes.addFlashAttribute("success", successMessage);
@@ -235,19 +325,9 @@ public class AdminController {
                 return "redirect:/admin/users/" + id + "/reject";
             }
             
-            User user = userService.rejectUser(id, rejectionReason.trim());
+            userService.rejectUser(id, rejectionReason.trim());
             String successMessage = messageSource.getMessage("users.reject.success.email", null, locale);
             redirectAttributes.addFlashAttribute("success", successMessage);
-
-            try {
-                emailService.sendUserRejectionEmail(user, rejectionReason.trim(), locale);
-                log.info("Rejection email sent to user {}", user.getEmail());
-            } catch (Exception e) {
-                log.error("Error while sending rejection email to {}", user.getEmail(), e);
-                String warningMessage = messageSource.getMessage("users.reject.success.email.error", 
-                    new Object[]{e.getMessage()}, locale);
-                redirectAttributes.addFlashAttribute("warning", warningMessage);
-            }
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
         }
@@ -283,21 +363,7 @@ public class AdminController {
                 return "redirect:/admin/users/" + id + "/delete";
             }
 
-            User userToDelete = userService.findById(id);
-            String userEmail = userToDelete.getEmail();
-
-            try {
-                emailService.sendUserDeletionEmail(userToDelete, deletionReason.trim(), locale);
-                log.info("Deletion email sent to user {}", userEmail);
-            } catch (Exception e) {
-                log.error("Error sending deletion email to {}", userEmail, e);
-                String warningMessage = messageSource.getMessage("users.delete.email.error", 
-                    new Object[]{e.getMessage()}, locale);
-                redirectAttributes.addFlashAttribute("warning", warningMessage);
-                return "redirect:/admin/users/" + id + "/delete";
-            }
-
-            userService.deleteUser(id, currentUser.getId());
+            userService.deleteUser(id, currentUser.getId(), deletionReason.trim());
             String successMessage = messageSource.getMessage("users.delete.success.email", null, locale);
             redirectAttributes.addFlashAttribute("success", successMessage);
         } catch (Exception e) {
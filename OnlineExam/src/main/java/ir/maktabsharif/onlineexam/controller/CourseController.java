@@ -1,18 +1,31 @@
 package ir.maktabsharif.onlineexam.controller;
+import ir.maktabsharif.onlineexam.export.ExportFormat;
+import ir.maktabsharif.onlineexam.export.ExportResponses;
+import ir.maktabsharif.onlineexam.model.dto.BulkEnrollmentResult;
+import ir.maktabsharif.onlineexam.model.dto.CourseSummary;
+import ir.maktabsharif.onlineexam.model.dto.ParticipantRow;
 import ir.maktabsharif.onlineexam.model.entity.Course;
 import ir.maktabsharif.onlineexam.model.entity.Role;
 import ir.maktabsharif.onlineexam.model.entity.User;
 import ir.maktabsharif.onlineexam.model.enums.UserStatus;
-import ir.maktabsharif.onlineexam.repository.RoleRepository;
 import ir.maktabsharif.onlineexam.repository.UserRepository;
+import ir.maktabsharif.onlineexam.security.RoleRegistry;
 import ir.maktabsharif.onlineexam.service.CourseService;
+import ir.maktabsharif.onlineexam.service.ExportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Locale;
 
@@ -22,13 +35,14 @@ import java.util.Locale;
 public class CourseController {
 
     private final CourseService courseService;
+    private final ExportService exportService;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final MessageSource messageSource;
 
     @GetMapping
     public String coursesPage(Model model) {
-        List<Course> courses = courseService.getAllCourses();
+        List<CourseSummary> courses = courseService.getCourseSummaries();
         model.addAttribute("courses", courses);
         return "admin/courses";
     }
@@ -90,7 +104,7 @@ public class CourseController {
     @GetMapping("/{id}/assign-teacher")
     public String assignTeacherPage(@PathVariable Long id, Model model) {
         Course course = courseService.findById(id);
-        Role teacherRole = roleRepository.findByName("ROLE_TEACHER")
+        Role teacherRole = roleRegistry.find("ROLE_TEACHER")
                 .orElseThrow(() -> new RuntimeException("Teacher role not found"));
         List<User> teachers = userRepository.findByRolesContaining(teacherRole);
         
@@ -117,7 +131,7 @@ public class CourseController {
     @GetMapping("/{id}/add-student")
     public String addStudentPage(@PathVariable Long id, Model model) {
         Course course = courseService.findById(id);
-        Role studentRole = roleRepository.findByName("ROLE_STUDENT")
+        Role studentRole = roleRegistry.find("ROLE_STUDENT")
                 .orElseThrow(() -> new RuntimeException("Student role not found"));
         List<User> allStudents = userRepository.findByRolesContaining(studentRole);
         List<User> approvedStudents = allStudents.stream()
@@ -145,6 +159,37 @@ public class CourseController {
         return "redirect:/admin/courses/" + id;
     }
 
+    @PostMapping("/{id}/enroll-students")
+    public String enrollStudents(@PathVariable Long id,
+                                 @RequestParam(required = false) MultipartFile file,
+                                 @RequestParam(required = false) String identifiers,
+                                 RedirectAttributes redirectAttributes) {
+        Locale locale = LocaleContextHolder.getLocale();
+        try {
+            Reader source;
+            if (file != null && !file.isEmpty()) {
+                source = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8);
+            } else if (identifiers != null && !identifiers.isBlank()) {
+                source = new StringReader(identifiers);
+            } else {
+                String errorMessage = messageSource.getMessage("courses.enroll.empty", null, locale);
+                redirectAttributes.addFlashAttribute("error", errorMessage);
+                return "redirect:/admin/courses/" + id + "/add-student";
+            }
+
+            BulkEnrollmentResult result = courseService.enrollStudents(id, source);
+            String successMessage = messageSource.getMessage("courses.enroll.success",
+                    new Object[]{result.getEnrolled(), result.getAlreadyEnrolled(), result.getErrors().size()}, locale);
+            redirectAttributes.addFlashAttribute("success", successMessage);
+            if (!result.getErrors().isEmpty()) {
+                redirectAttributes.addFlashAttribute("enrollmentErrors", result.getErrors());
+            }
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/admin/courses/" + id;
+    }
+
     @GetMapping("/{id}")
     public String courseDetailsPage(@PathVariable Long id, Model model) {
         Course course = courseService.findById(id);
@@ -154,14 +199,23 @@ public class CourseController {
 
     @GetMapping("/{id}/participants")
     public String courseParticipantsPage(@PathVariable Long id, Model model) {
-        Course course = courseService.findById(id);
-        List<User> participants = courseService.getCourseParticipants(id);
-        
+        CourseSummary course = courseService.getCourseSummary(id);
+        List<ParticipantRow> students = courseService.getCourseStudents(id);
+
         model.addAttribute("course", course);
-        model.addAttribute("participants", participants);
+        model.addAttribute("students", students);
         return "admin/course_participants";
     }
 
+    @GetMapping("/{id}/participants/export")
+    public ResponseEntity<StreamingResponseBody> exportParticipants(@PathVariable Long id,
+                                                                    @RequestParam(defaultValue = "CSV") ExportFormat format) {
+        CourseSummary course = courseService.getCourseSummary(id);
+        Locale locale = LocaleContextHolder.getLocale();
+        return ExportResponses.attachment(format, course.getCourseCode() + "-participants",
+                output -> exportService.exportParticipants(id, format, locale, output));
+    }
+
     @PostMapping("/{id}/remove-student")
     public String removeStudent(@PathVariable Long id,
                                @RequestParam Long studentId,
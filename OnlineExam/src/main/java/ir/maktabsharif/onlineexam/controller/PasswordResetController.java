@@ -74,15 +74,13 @@ public class PasswordResetController {
                             RedirectAttributes redirectAttributes) {
         Locale locale = LocaleContextHolder.getLocale();
         try {
-            if (!passwordResetService.validateResetCode(email, code)) {
+            if (!passwordResetService.consumeResetCode(email, code)) {
                 String errorMessage = messageSource.getMessage("password.verify.code.invalid", null, locale);
                 redirectAttributes.addFlashAttribute("error", errorMessage);
                 redirectAttributes.addFlashAttribute("email", email);
                 return "redirect:/password-reset/verify-code";
             }
 
-            passwordResetService.deleteResetCode(email);
-
             redirectAttributes.addFlashAttribute("email", email);
             String successMessage = messageSource.getMessage("password.verify.code.success", null, locale);
             redirectAttributes.addFlashAttribute("success", successMessage);
@@ -0,0 +1,125 @@
+package ir.maktabsharif.onlineexam.controller;
+import ir.maktabsharif.onlineexam.model.dto.CourseSummary;
+import ir.maktabsharif.onlineexam.model.dto.ExamSession;
+import ir.maktabsharif.onlineexam.model.entity.User;
+import ir.maktabsharif.onlineexam.service.CourseService;
+import ir.maktabsharif.onlineexam.service.ExamAttemptService;
+import ir.maktabsharif.onlineexam.service.ExamService;
+import ir.maktabsharif.onlineexam.service.QuestionService;
+import ir.maktabsharif.onlineexam.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import java.util.List;
+import java.util.Map;
+
+@Controller
+@RequiredArgsConstructor
+@RequestMapping("/student")
+public class StudentController {
+
+    private final CourseService courseService;
+    private final ExamService examService;
+    private final ExamAttemptService examAttemptService;
+    private final QuestionService questionService;
+    private final UserService userService;
+    private final MessageSource messageSource;
+
+    private User getCurrentStudent() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return userService.findByUsername(authentication.getName());
+    }
+
+    @GetMapping("/courses")
+    public String coursesPage(Model model) {
+        User student = getCurrentStudent();
+        List<CourseSummary> courses = courseService.getCourseSummariesByStudent(student.getId());
+        model.addAttribute("courses", courses);
+        return "student/courses";
+    }
+
+    @GetMapping("/courses/{courseId}/exams")
+    public String examsPage(@PathVariable Long courseId, Model model, RedirectAttributes redirectAttributes) {
+        User student = getCurrentStudent();
+        if (!courseService.isStudentEnrolled(courseId, student.getId())) {
+            String errorMsg = messageSource.getMessage("attempt.error.not.enrolled", null, LocaleContextHolder.getLocale());
+            redirectAttributes.addFlashAttribute("error", errorMsg);
+            return "redirect:/student/courses";
+        }
+
+        model.addAttribute("course", courseService.getCourseSummary(courseId));
+        model.addAttribute("exams", examService.getExamRowsByCourse(courseId));
+        model.addAttribute("attemptStatuses", examAttemptService.getAttemptStatuses(student.getId(), courseId));
+        return "student/exams";
+    }
+
+    @PostMapping("/exams/{examId}/start")
+    public String startExam(@PathVariable Long examId,
+                            @RequestParam Long courseId,
+                            RedirectAttributes redirectAttributes) {
+        try {
+            ExamSession session = examAttemptService.startAttempt(examId, getCurrentStudent().getId());
+            return "redirect:/student/attempts/" + session.getAttemptId();
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/student/courses/" + courseId + "/exams";
+        }
+    }
+
+    @GetMapping("/attempts/{attemptId}")
+    public String attemptPage(@PathVariable Long attemptId, Model model, RedirectAttributes redirectAttributes) {
+        try {
+            ExamSession session = examAttemptService.getSession(attemptId, getCurrentStudent().getId());
+            if (!session.isOpen()) {
+                String errorMsg = messageSource.getMessage("attempt.error.finished", null, LocaleContextHolder.getLocale());
+                redirectAttributes.addFlashAttribute("error", errorMsg);
+                return "redirect:/student/courses/" + session.getCourseId() + "/exams";
+            }
+            model.addAttribute("attempt", session);
+            model.addAttribute("remainingSeconds", session.remainingSeconds());
+            model.addAttribute("questions", questionService.getExamQuestions(session.getExamId()).getQuestions());
+            model.addAttribute("answers", examAttemptService.getAnswers(attemptId));
+            return "student/attempt";
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/student/courses";
+        }
+    }
+
+    @PostMapping("/attempts/{attemptId}/answers")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> saveAnswer(@PathVariable Long attemptId,
+                                                          @RequestParam Long questionId,
+                                                          @RequestParam(required = false) String answer) {
+        try {
+            String username = SecurityContextHolder.getContext().getAuthentication().getName();
+            long remainingSeconds = examAttemptService.saveAnswer(attemptId, username, questionId, answer);
+            return ResponseEntity.ok(Map.of("remainingSeconds", remainingSeconds));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/attempts/{attemptId}/submit")
+    public String submitAttempt(@PathVariable Long attemptId, RedirectAttributes redirectAttributes) {
+        User student = getCurrentStudent();
+        try {
+            ExamSession session = examAttemptService.getSession(attemptId, student.getId());
+            examAttemptService.submitAttempt(attemptId, student.getId());
+            String successMsg = messageSource.getMessage("attempt.submit.success", null, LocaleContextHolder.getLocale());
+            redirectAttributes.addFlashAttribute("success", successMsg);
+            return "redirect:/student/courses/" + session.getCourseId() + "/exams";
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/student/courses";
+        }
+    }
+}
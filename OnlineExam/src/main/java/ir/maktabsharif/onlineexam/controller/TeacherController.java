@@ -1,31 +1,54 @@
 package ir.maktabsharif.onlineexam.controller;
+import ir.maktabsharif.onlineexam.export.ExportFormat;
+import ir.maktabsharif.onlineexam.export.ExportResponses;
+import ir.maktabsharif.onlineexam.grading.GradingStatus;
+import ir.maktabsharif.onlineexam.model.dto.CourseSummary;
+import ir.maktabsharif.onlineexam.model.dto.ExamRow;
+import ir.maktabsharif.onlineexam.model.dto.QuestionImportResult;
+import ir.maktabsharif.onlineexam.model.dto.QuestionInput;
 import ir.maktabsharif.onlineexam.model.entity.Course;
 import ir.maktabsharif.onlineexam.model.entity.Exam;
 import ir.maktabsharif.onlineexam.model.entity.User;
-import ir.maktabsharif.onlineexam.repository.CourseRepository;
+import ir.maktabsharif.onlineexam.model.enums.QuestionType;
 import ir.maktabsharif.onlineexam.service.CourseService;
 import ir.maktabsharif.onlineexam.service.ExamService;
+import ir.maktabsharif.onlineexam.service.ExamStatisticsService;
+import ir.maktabsharif.onlineexam.service.ExportService;
+import ir.maktabsharif.onlineexam.service.GradingService;
+import ir.maktabsharif.onlineexam.service.QuestionService;
 import ir.maktabsharif.onlineexam.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 @Controller
 @RequiredArgsConstructor
 @RequestMapping("/teacher")
 public class TeacherController {
 
-    private final CourseRepository courseRepository;
     private final CourseService courseService;
     private final ExamService examService;
+    private final QuestionService questionService;
+    private final GradingService gradingService;
+    private final ExamStatisticsService examStatisticsService;
+    private final ExportService exportService;
     private final UserService userService;
     private final MessageSource messageSource;
 
@@ -38,7 +61,7 @@ public class TeacherController {
     @GetMapping("/courses")
     public String teacherCoursesPage(Model model) {
         User teacher = getCurrentTeacher();
-        List<Course> courses = courseRepository.findByTeacherWithStudents(teacher);
+        List<CourseSummary> courses = courseService.getCourseSummariesByTeacher(teacher.getId());
         model.addAttribute("courses", courses);
         return "teacher/courses";
     }
@@ -46,16 +69,20 @@ public class TeacherController {
     @GetMapping("/courses/{courseId}/exams")
     public String courseExamsPage(@PathVariable Long courseId, Model model) {
         User teacher = getCurrentTeacher();
-        Course course = courseService.findById(courseId);
+        CourseSummary course = courseService.getCourseSummary(courseId);
         
-        if (course.getTeacher() == null || !course.getTeacher().getId().equals(teacher.getId())) {
+        if (course.getTeacherId() == null || !course.getTeacherId().equals(teacher.getId())) {
             String errorMsg = messageSource.getMessage("error.unauthorized", null, LocaleContextHolder.getLocale());
             return "redirect:/teacher/courses?error=" + errorMsg;
         }
         
-        List<Exam> exams = examService.getExamsByCourse(course);
+        List<ExamRow> exams = examService.getExamRowsByCourse(courseId);
+        Map<Long, GradingStatus> gradingStatuses = gradingService.getGradingStatuses(courseId);
         model.addAttribute("course", course);
         model.addAttribute("exams", exams);
+        model.addAttribute("gradingStatuses", gradingStatuses);
+        model.addAttribute("gradingRunning", gradingStatuses.values().stream().anyMatch(GradingStatus::isRunning));
+        model.addAttribute("courseStatistics", examStatisticsService.getCourseStatistics(courseId));
         model.addAttribute("currentTeacher", teacher);
         return "teacher/exams";
     }
@@ -63,15 +90,15 @@ public class TeacherController {
     @GetMapping("/courses/{courseId}/exams/new")
     public String newExamPage(@PathVariable Long courseId, Model model) {
         User teacher = getCurrentTeacher();
-        Course course = courseService.findById(courseId);
+        CourseSummary course = courseService.getCourseSummary(courseId);
         
-        if (course.getTeacher() == null || !course.getTeacher().getId().equals(teacher.getId())) {
+        if (course.getTeacherId() == null || !course.getTeacherId().equals(teacher.getId())) {
             String errorMsg = messageSource.getMessage("error.unauthorized", null, LocaleContextHolder.getLocale());
             return "redirect:/teacher/courses?error=" + errorMsg;
         }
         
         Exam exam = new Exam();
-        exam.setCourse(course);
+        exam.setCourse(courseReference(courseId));
         exam.setTeacher(teacher);
         
         model.addAttribute("exam", exam);
@@ -85,15 +112,14 @@ public class TeacherController {
                             RedirectAttributes redirectAttributes) {
         try {
             User teacher = getCurrentTeacher();
-            Course course = courseService.findById(courseId);
             
-            if (course.getTeacher() == null || !course.getTeacher().getId().equals(teacher.getId())) {
+            if (!teachesCourse(courseId, teacher)) {
                 String errorMsg = messageSource.getMessage("error.unauthorized", null, LocaleContextHolder.getLocale());
                 redirectAttributes.addFlashAttribute("error", errorMsg);
                 return "redirect:/teacher/courses";
             }
             
-            exam.setCourse(course);
+            exam.setCourse(courseReference(courseId));
             exam.setTeacher(teacher);
             
             examService.createExam(exam);
@@ -111,10 +137,10 @@ public class TeacherController {
                                @PathVariable Long examId,
                                Model model) {
         User teacher = getCurrentTeacher();
-        Course course = courseService.findById(courseId);
+        CourseSummary course = courseService.getCourseSummary(courseId);
         Exam exam = examService.findById(examId);
         
-        if (course.getTeacher() == null || !course.getTeacher().getId().equals(teacher.getId())) {
+        if (course.getTeacherId() == null || !course.getTeacherId().equals(teacher.getId())) {
             Locale locale = LocaleContextHolder.getLocale();
             String errorMsg = messageSource.getMessage("error.unauthorized", null, locale);
             return "redirect:/teacher/courses?error=" + errorMsg;
@@ -136,9 +162,8 @@ public class TeacherController {
                             RedirectAttributes redirectAttributes) {
         try {
             User teacher = getCurrentTeacher();
-            Course course = courseService.findById(courseId);
             
-            if (course.getTeacher() == null || !course.getTeacher().getId().equals(teacher.getId())) {
+            if (!teachesCourse(courseId, teacher)) {
                 Locale locale = LocaleContextHolder.getLocale();
                 String errorMsg = messageSource.getMessage("error.unauthorized", null, locale);
                 redirectAttributes.addFlashAttribute("error", errorMsg);
@@ -166,9 +191,8 @@ public class TeacherController {
                             RedirectAttributes redirectAttributes) {
         try {
             User teacher = getCurrentTeacher();
-            Course course = courseService.findById(courseId);
             
-            if (course.getTeacher() == null || !course.getTeacher().getId().equals(teacher.getId())) {
+            if (!teachesCourse(courseId, teacher)) {
                 Locale locale = LocaleContextHolder.getLocale();
                 String errorMsg = messageSource.getMessage("error.unauthorized", null, locale);
                 redirectAttributes.addFlashAttribute("error", errorMsg);
@@ -189,5 +213,229 @@ public class TeacherController {
         }
         return "redirect:/teacher/courses/" + courseId + "/exams";
     }
-}
 
+    @PostMapping("/courses/{courseId}/exams/{examId}/grade")
+    public String gradeExam(@PathVariable Long courseId,
+                            @PathVariable Long examId,
+                            RedirectAttributes redirectAttributes) {
+        try {
+            User teacher = getCurrentTeacher();
+            if (!canManageExam(courseId, examId, teacher)) {
+                String errorMsg = messageSource.getMessage("error.unauthorized", null, LocaleContextHolder.getLocale());
+                redirectAttributes.addFlashAttribute("error", errorMsg);
+                return "redirect:/teacher/courses/" + courseId + "/exams";
+            }
+
+            gradingService.startGrading(examId);
+            String successMsg = messageSource.getMessage("grading.started", null, LocaleContextHolder.getLocale());
+            redirectAttributes.addFlashAttribute("success", successMsg);
+        } catch (Exception e) {
+            String errorMsg = messageSource.getMessage(e.getMessage(), null, e.getMessage(), LocaleContextHolder.getLocale());
+            redirectAttributes.addFlashAttribute("error", errorMsg);
+        }
+        return "redirect:/teacher/courses/" + courseId + "/exams";
+    }
+
+    @GetMapping("/courses/{courseId}/exams/{examId}/statistics")
+    public String statisticsPage(@PathVariable Long courseId,
+                                 @PathVariable Long examId,
+                                 Model model) {
+        User teacher = getCurrentTeacher();
+        if (!canManageExam(courseId, examId, teacher)) {
+            String errorMsg = messageSource.getMessage("error.unauthorized", null, LocaleContextHolder.getLocale());
+            return "redirect:/teacher/courses/" + courseId + "/exams?error=" + errorMsg;
+        }
+
+        model.addAttribute("course", courseService.getCourseSummary(courseId));
+        model.addAttribute("exam", examService.findById(examId));
+        model.addAttribute("statistics", examStatisticsService.getExamStatistics(examId));
+        return "teacher/statistics";
+    }
+
+    @PostMapping("/courses/{courseId}/exams/{examId}/statistics/rebuild")
+    public String rebuildStatistics(@PathVariable Long courseId,
+                                    @PathVariable Long examId,
+                                    RedirectAttributes redirectAttributes) {
+        try {
+            User teacher = getCurrentTeacher();
+            if (!canManageExam(courseId, examId, teacher)) {
+                String errorMsg = messageSource.getMessage("error.unauthorized", null, LocaleContextHolder.getLocale());
+                redirectAttributes.addFlashAttribute("error", errorMsg);
+                return "redirect:/teacher/courses/" + courseId + "/exams";
+            }
+
+            examStatisticsService.rebuildExamStatistics(examId);
+            String successMsg = messageSource.getMessage("statistics.rebuild.success", null, LocaleContextHolder.getLocale());
+            redirectAttributes.addFlashAttribute("success", successMsg);
+        } catch (Exception e) {
+            String errorMsg = messageSource.getMessage(e.getMessage(), null, e.getMessage(), LocaleContextHolder.getLocale());
+            redirectAttributes.addFlashAttribute("error", errorMsg);
+        }
+        return "redirect:/teacher/courses/" + courseId + "/exams/" + examId + "/statistics";
+    }
+
+    @GetMapping("/courses/{courseId}/participants/export")
+    public ResponseEntity<StreamingResponseBody> exportParticipants(@PathVariable Long courseId,
+                                                                    @RequestParam(defaultValue = "CSV") ExportFormat format) {
+        User teacher = getCurrentTeacher();
+        CourseSummary course = courseService.getCourseSummary(courseId);
+        if (course.getTeacherId() == null || !course.getTeacherId().equals(teacher.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Locale locale = LocaleContextHolder.getLocale();
+        return ExportResponses.attachment(format, course.getCourseCode() + "-participants",
+                output -> exportService.exportParticipants(courseId, format, locale, output));
+    }
+
+    @GetMapping("/courses/{courseId}/exams/{examId}/results/export")
+    public ResponseEntity<StreamingResponseBody> exportResults(@PathVariable Long courseId,
+                                                               @PathVariable Long examId,
+                                                               @RequestParam(defaultValue = "CSV") ExportFormat format) {
+        User teacher = getCurrentTeacher();
+        if (!canManageExam(courseId, examId, teacher)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Exam exam = examService.findById(examId);
+        Locale locale = LocaleContextHolder.getLocale();
+        return ExportResponses.attachment(format, exam.getTitle() + "-results",
+                output -> exportService.exportExamResults(examId, format, locale, output));
+    }
+
+    @GetMapping("/courses/{courseId}/exams/{examId}/questions")
+    public String questionsPage(@PathVariable Long courseId,
+                                @PathVariable Long examId,
+                                Model model) {
+        User teacher = getCurrentTeacher();
+        if (!canManageExam(courseId, examId, teacher)) {
+            String errorMsg = messageSource.getMessage("error.unauthorized", null, LocaleContextHolder.getLocale());
+            return "redirect:/teacher/courses/" + courseId + "/exams?error=" + errorMsg;
+        }
+
+        model.addAttribute("course", courseService.getCourseSummary(courseId));
+        model.addAttribute("exam", examService.findById(examId));
+        model.addAttribute("questions", questionService.getExamQuestions(examId).getQuestions());
+        model.addAttribute("questionTypes", QuestionType.values());
+        return "teacher/questions";
+    }
+
+    @PostMapping("/courses/{courseId}/exams/{examId}/questions")
+    public String addQuestion(@PathVariable Long courseId,
+                              @PathVariable Long examId,
+                              @RequestParam QuestionType type,
+                              @RequestParam String text,
+                              @RequestParam(required = false) Double score,
+                              @RequestParam(required = false) String options,
+                              @RequestParam(required = false) Integer correctOption,
+                              RedirectAttributes redirectAttributes) {
+        try {
+            User teacher = getCurrentTeacher();
+            if (!canManageExam(courseId, examId, teacher)) {
+                String errorMsg = messageSource.getMessage("error.unauthorized", null, LocaleContextHolder.getLocale());
+                redirectAttributes.addFlashAttribute("error", errorMsg);
+                return "redirect:/teacher/courses/" + courseId + "/exams";
+            }
+
+            QuestionInput question = QuestionInput.builder()
+                    .type(type)
+                    .text(text)
+                    .score(score)
+                    .options(options == null ? List.of() : Arrays.stream(options.split("\\R"))
+                            .map(String::trim)
+                            .filter(option -> !option.isEmpty())
+                            .toList())
+                    .correctOption(correctOption == null ? null : correctOption - 1)
+                    .build();
+            questionService.addQuestion(examId, question);
+            String successMsg = messageSource.getMessage("questions.add.success", null, LocaleContextHolder.getLocale());
+            redirectAttributes.addFlashAttribute("success", successMsg);
+        } catch (Exception e) {
+            String errorMsg = messageSource.getMessage(e.getMessage(), null, e.getMessage(), LocaleContextHolder.getLocale());
+            redirectAttributes.addFlashAttribute("error", errorMsg);
+        }
+        return "redirect:/teacher/courses/" + courseId + "/exams/" + examId + "/questions";
+    }
+
+    @PostMapping("/courses/{courseId}/exams/{examId}/questions/{questionId}/delete")
+    public String deleteQuestion(@PathVariable Long courseId,
+                                 @PathVariable Long examId,
+                                 @PathVariable Long questionId,
+                                 RedirectAttributes redirectAttributes) {
+        try {
+            User teacher = getCurrentTeacher();
+            if (!canManageExam(courseId, examId, teacher)) {
+                String errorMsg = messageSource.getMessage("error.unauthorized", null, LocaleContextHolder.getLocale());
+                redirectAttributes.addFlashAttribute("error", errorMsg);
+                return "redirect:/teacher/courses/" + courseId + "/exams";
+            }
+
+            questionService.deleteQuestion(examId, questionId);
+            String successMsg = messageSource.getMessage("questions.delete.success", null, LocaleContextHolder.getLocale());
+            redirectAttributes.addFlashAttribute("success", successMsg);
+        } catch (Exception e) {
+            String errorMsg = messageSource.getMessage(e.getMessage(), null, e.getMessage(), LocaleContextHolder.getLocale());
+            redirectAttributes.addFlashAttribute("error", errorMsg);
+        }
+        return "redirect:/teacher/courses/" + courseId + "/exams/" + examId + "/questions";
+    }
+
+    @PostMapping("/courses/{courseId}/exams/{examId}/questions/import")
+    public String importQuestions(@PathVariable Long courseId,
+                                  @PathVariable Long examId,
+                                  @RequestParam("file") MultipartFile file,
+                                  RedirectAttributes redirectAttributes) {
+        Locale locale = LocaleContextHolder.getLocale();
+        try {
+            User teacher = getCurrentTeacher();
+            if (!canManageExam(courseId, examId, teacher)) {
+                String errorMsg = messageSource.getMessage("error.unauthorized", null, locale);
+                redirectAttributes.addFlashAttribute("error", errorMsg);
+                return "redirect:/teacher/courses/" + courseId + "/exams";
+            }
+            if (file.isEmpty()) {
+                String errorMsg = messageSource.getMessage("questions.import.error.empty", null, locale);
+                redirectAttributes.addFlashAttribute("error", errorMsg);
+                return "redirect:/teacher/courses/" + courseId + "/exams/" + examId + "/questions";
+            }
+
+            String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+            QuestionImportResult result;
+            try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+                result = filename.endsWith(".json")
+                        ? questionService.importJson(examId, reader)
+                        : questionService.importCsv(examId, reader);
+            }
+
+            String successMsg = messageSource.getMessage("questions.import.success",
+                    new Object[]{result.getImported(), result.getErrors().size()}, locale);
+            redirectAttributes.addFlashAttribute("success", successMsg);
+            redirectAttributes.addFlashAttribute("importErrors", result.getErrors());
+        } catch (Exception e) {
+            String errorMsg = messageSource.getMessage(e.getMessage(), null, e.getMessage(), locale);
+            redirectAttributes.addFlashAttribute("error", errorMsg);
+        }
+        return "redirect:/teacher/courses/" + courseId + "/exams/" + examId + "/questions";
+    }
+
+    /** Ownership check from the course summary, so the course roster is never loaded. */
+    private boolean teachesCourse(Long courseId, User teacher) {
+        Long teacherId = courseService.getCourseSummary(courseId).getTeacherId();
+        return teacherId != null && teacherId.equals(teacher.getId());
+    }
+
+    /** A course holding only its id; ExamService loads the course itself. */
+    private static Course courseReference(Long courseId) {
+        Course course = new Course();
+        course.setId(courseId);
+        return course;
+    }
+
+    private boolean canManageExam(Long courseId, Long examId, User teacher) {
+        if (!teachesCourse(courseId, teacher)) {
+            return false;
+        }
+        Exam exam = examService.findById(examId);
+        return exam.getCourse().getId().equals(courseId) && exam.getTeacher().getId().equals(teacher.getId());
+    }
+}
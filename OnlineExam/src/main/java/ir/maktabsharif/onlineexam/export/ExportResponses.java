@@ -0,0 +1,29 @@
+package ir.maktabsharif.onlineexam.export;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.nio.charset.StandardCharsets;
+
+public final class ExportResponses {
+
+    private ExportResponses() {
+    }
+
+    /**
+     * Wraps an export in a download response. The body is written on an async thread
+     * after the controller returns, straight to the servlet output stream.
+     */
+    public static ResponseEntity<StreamingResponseBody> attachment(ExportFormat format, String baseName,
+                                                                   StreamingResponseBody body) {
+        String filename = baseName.replaceAll("[^\\p{L}\\p{N}._-]+", "_") + "." + format.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(filename, StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,12 @@
+package ir.maktabsharif.onlineexam.export;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes a table one row at a time straight to an output stream. Implementations keep
+ * nothing but the current row, so exports of any size run in constant memory.
+ * Closing finishes the document but leaves the underlying stream open.
+ */
+public interface TableWriter extends Closeable {
+    void writeRow(Object... values) throws IOException;
+}
@@ -0,0 +1,294 @@
+package ir.maktabsharif.onlineexam.geoip;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.maxmind.db.NoCache;
+import com.maxmind.db.Reader;
+import com.maxmind.geoip2.DatabaseReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Country lookup from a local MaxMind GeoLite2/GeoIP2 Country database; nothing is
+ * ever fetched over the network.
+ *
+ * <p>The database is memory-mapped rather than read onto the heap. It is taken from
+ * {@code app.geoip.database-path} or, failing that, from {@code GeoLite2-Country.mmdb}
+ * on the classpath. Either way it is first copied to a versioned file in a private
+ * temporary directory and the copy is mapped, never the source: rewriting a mapped
+ * file in place corrupts lookups or kills the JVM with SIGBUS, and a jar entry
+ * cannot be mapped at all. Results, including misses, are kept in a bounded cache in
+ * front of the reader.
+ *
+ * <p>The configured file is checked for changes every {@code app.geoip.reload-interval-ms}.
+ * A changed file is copied and opened next to the old copy and swapped in with one
+ * reference update, so lookups never wait; the old reader is closed and its copy
+ * deleted after a grace period. A file that changes while it is being copied is
+ * skipped until the next check. Without a database every lookup answers empty.
+ */
+@Slf4j
+@Component
+public class GeoIpService implements MeterBinder {
+
+    private static final String CLASSPATH_DATABASE = "GeoLite2-Country.mmdb";
+    private static final String UNKNOWN = "";
+
+    @Value("${app.geoip.database-path:}")
+    private String databasePath;
+
+    @Value("${app.geoip.cache-size:10000}")
+    private long cacheSize;
+
+    @Value("${app.geoip.reload-interval-ms:60000}")
+    private long reloadIntervalMillis;
+
+    private final AtomicReference<LoadedDatabase> database = new AtomicReference<>();
+    private final AtomicInteger version = new AtomicInteger();
+    /** Swapped-out databases waiting for their grace period before they are closed. */
+    private final List<LoadedDatabase> retired = new CopyOnWriteArrayList<>();
+    private Cache<String, String> countries;
+    private ScheduledExecutorService reloader;
+    private Path workDirectory;
+
+    @PostConstruct
+    void start() {
+        countries = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "geoip-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            workDirectory = Files.createTempDirectory("geoip-");
+        } catch (IOException e) {
+            log.error("Could not create a directory for the GeoIP database, country lookups are disabled", e);
+            return;
+        }
+        if (!databasePath.isBlank()) {
+            Path configured = Path.of(databasePath);
+            if (Files.isRegularFile(configured)) {
+                open(configured);
+            } else {
+                log.warn("GeoIP database {} does not exist", configured);
+            }
+            if (reloadIntervalMillis > 0) {
+                reloader.scheduleWithFixedDelay(this::reloadIfChanged, reloadIntervalMillis, reloadIntervalMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+        if (database.get() == null) {
+            openClasspathDatabase();
+        }
+        if (database.get() == null) {
+            log.info("No GeoIP database found, country lookups are disabled");
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        // Cancelled tasks never run, so the databases still in their grace period
+        // are closed here rather than by the scheduled closes.
+        reloader.shutdownNow();
+        retired.forEach(this::closeRetired);
+        LoadedDatabase current = database.getAndSet(null);
+        if (current != null) {
+            current.close();
+        }
+        if (workDirectory != null) {
+            try {
+                Files.deleteIfExists(workDirectory);
+            } catch (IOException e) {
+                log.warn("Could not delete {}: {}", workDirectory, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, countries, "geoip.countries");
+    }
+
+    public boolean isAvailable() {
+        return database.get() != null;
+    }
+
+    /** ISO code of the country the address belongs to, e.g. {@code IR}. */
+    public Optional<String> countryCode(String ip) {
+        if (ip == null || !isIpLiteral(ip) || database.get() == null) {
+            return Optional.empty();
+        }
+        String country = countries.get(ip, this::lookup);
+        return country.isEmpty() ? Optional.empty() : Optional.of(country);
+    }
+
+    private String lookup(String ip) {
+        LoadedDatabase current = database.get();
+        if (current == null) {
+            return UNKNOWN;
+        }
+        try {
+            InetAddress address = InetAddress.getByName(ip);
+            if (address.isLoopbackAddress() || address.isSiteLocalAddress() || address.isLinkLocalAddress()) {
+                return UNKNOWN;
+            }
+            return current.reader.tryCountry(address)
+                    .map(response -> response.getCountry().getIsoCode())
+                    .map(code -> code.toUpperCase(Locale.ROOT))
+                    .orElse(UNKNOWN);
+        } catch (Exception e) {
+            log.debug("GeoIP lookup failed for {}: {}", ip, e.getMessage());
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Only well-formed literal addresses are looked up, so InetAddress never falls back
+     * to DNS: dotted IPv4 with four parts of 0-255, or anything containing a colon,
+     * which InetAddress always parses as IPv6.
+     */
+    private static boolean isIpLiteral(String ip) {
+        if (ip.isEmpty() || ip.length() > 45) {
+            return false;
+        }
+        if (ip.indexOf(':') >= 0) {
+            for (int i = 0; i < ip.length(); i++) {
+                char c = ip.charAt(i);
+                if (Character.digit(c, 16) < 0 && c != '.' && c != ':') {
+                    return false;
+                }
+            }
+            return true;
+        }
+        String[] parts = ip.split("\\.", -1);
+        if (parts.length != 4) {
+            return false;
+        }
+        for (String part : parts) {
+            if (part.isEmpty() || part.length() > 3 || !part.chars().allMatch(c -> c >= '0' && c <= '9')
+                    || Integer.parseInt(part) > 255) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void reloadIfChanged() {
+        try {
+            Path configured = Path.of(databasePath);
+            if (!Files.isRegularFile(configured)) {
+                return;
+            }
+            LoadedDatabase current = database.get();
+            if (current == null || Files.getLastModifiedTime(configured).toMillis() != current.lastModified
+                    || Files.size(configured) != current.size) {
+                open(configured);
+            }
+        } catch (Exception e) {
+            log.error("Error reloading GeoIP database", e);
+        }
+    }
+
+    /**
+     * Copies the configured file and opens the copy. The copy is dropped when the
+     * source changed while it was read, e.g. because it is still being written.
+     */
+    private void open(Path source) {
+        Path copy = nextCopy();
+        try {
+            long lastModified = Files.getLastModifiedTime(source).toMillis();
+            long size = Files.size(source);
+            Files.copy(source, copy);
+            if (Files.getLastModifiedTime(source).toMillis() != lastModified || Files.size(source) != size) {
+                log.warn("GeoIP database {} changed while it was copied, trying again on the next check", source);
+                delete(copy);
+                return;
+            }
+            install(source, copy, lastModified, size);
+        } catch (IOException e) {
+            log.error("Could not open GeoIP database {}", source, e);
+            delete(copy);
+        }
+    }
+
+    private void openClasspathDatabase() {
+        ClassPathResource resource = new ClassPathResource(CLASSPATH_DATABASE);
+        if (!resource.exists()) {
+            return;
+        }
+        Path copy = nextCopy();
+        try (InputStream in = resource.getInputStream()) {
+            Files.copy(in, copy);
+            install(resource, copy, 0, Files.size(copy));
+        } catch (IOException e) {
+            log.error("Could not read GeoIP database from the classpath", e);
+            delete(copy);
+        }
+    }
+
+    private void install(Object source, Path copy, long lastModified, long size) throws IOException {
+        DatabaseReader reader = new DatabaseReader.Builder(copy.toFile())
+                .fileMode(Reader.FileMode.MEMORY_MAPPED)
+                .withCache(NoCache.getInstance())
+                .build();
+        LoadedDatabase previous = database.getAndSet(new LoadedDatabase(reader, copy, lastModified, size));
+        countries.invalidateAll();
+        log.info("GeoIP database {} loaded (built {})", source, reader.getMetadata().getBuildDate());
+        if (previous != null) {
+            retired.add(previous);
+            reloader.schedule(() -> closeRetired(previous), 30, TimeUnit.SECONDS);
+        }
+    }
+
+    private void closeRetired(LoadedDatabase previous) {
+        if (retired.remove(previous)) {
+            previous.close();
+        }
+    }
+
+    private Path nextCopy() {
+        return workDirectory.resolve("GeoIP-" + version.incrementAndGet() + ".mmdb");
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private record LoadedDatabase(DatabaseReader reader, Path copy, long lastModified, long size) {
+        void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                log.warn("Error closing GeoIP database: {}", e.getMessage());
+            }
+            delete(copy);
+        }
+    }
+}
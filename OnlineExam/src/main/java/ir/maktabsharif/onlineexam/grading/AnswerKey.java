@@ -0,0 +1,148 @@
+package ir.maktabsharif.onlineexam.grading;
+import ir.maktabsharif.onlineexam.model.dto.ExamQuestions;
+import ir.maktabsharif.onlineexam.model.dto.QuestionView;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answer key of the multiple-choice questions of one exam, laid out as a bitmap.
+ * Every option of every objective question owns one bit; the key has the bit of each
+ * correct option set. A student's answers are laid out the same way in an
+ * {@link AnswerSheet}, and grading is an AND of the two bitmaps followed by summing
+ * the scores of the questions whose bits survive.
+ *
+ * <p>Instances are immutable and safe to share between grading threads.
+ */
+public final class AnswerKey {
+
+    private final Map<Long, Integer> positions;
+    private final long[] questionIds;
+    private final int[] offsets;
+    private final int[] optionCounts;
+    private final double[] scores;
+    private final int[] questionAtBit;
+    private final long[] key;
+    private final double maxScore;
+
+    private AnswerKey(List<QuestionView> questions) {
+        int count = questions.size();
+        this.positions = new HashMap<>(count * 2);
+        this.questionIds = new long[count];
+        this.offsets = new int[count];
+        this.optionCounts = new int[count];
+        this.scores = new double[count];
+
+        int bits = 0;
+        for (int i = 0; i < count; i++) {
+            QuestionView question = questions.get(i);
+            positions.put(question.getId(), i);
+            questionIds[i] = question.getId();
+            offsets[i] = bits;
+            optionCounts[i] = question.getOptions().size();
+            scores[i] = question.getScore();
+            bits += optionCounts[i];
+        }
+
+        this.questionAtBit = new int[bits];
+        this.key = new long[words(bits)];
+        for (int i = 0; i < count; i++) {
+            Arrays.fill(questionAtBit, offsets[i], offsets[i] + optionCounts[i], i);
+            int correctBit = offsets[i] + questions.get(i).getCorrectOption();
+            key[correctBit >>> 6] |= 1L << correctBit;
+        }
+        this.maxScore = Arrays.stream(scores).sum();
+    }
+
+    public static AnswerKey of(ExamQuestions examQuestions) {
+        return new AnswerKey(examQuestions.getQuestions().stream()
+                .filter(QuestionView::isMultipleChoice)
+                .filter(question -> question.getCorrectOption() != null
+                        && question.getCorrectOption() < question.getOptions().size())
+                .toList());
+    }
+
+    public AnswerSheet newSheet(Long attemptId) {
+        return new AnswerSheet(attemptId, new long[key.length]);
+    }
+
+    /** Number of objective questions in the key. */
+    public int size() {
+        return questionIds.length;
+    }
+
+    public Long questionIdAt(int position) {
+        return questionIds[position];
+    }
+
+    public double getMaxScore() {
+        return maxScore;
+    }
+
+    /**
+     * Scores a sheet. Bit {@code i} of the returned result's {@code correct} mask is set
+     * when the question at position {@code i} was answered correctly.
+     */
+    public GradedAttempt grade(AnswerSheet sheet) {
+        long[] answers = sheet.bits;
+        long[] correct = new long[words(questionIds.length)];
+        double score = 0;
+        int correctCount = 0;
+        for (int word = 0; word < key.length; word++) {
+            long hits = answers[word] & key[word];
+            while (hits != 0) {
+                int position = questionAtBit[(word << 6) + Long.numberOfTrailingZeros(hits)];
+                score += scores[position];
+                correct[position >>> 6] |= 1L << position;
+                correctCount++;
+                hits &= hits - 1;
+            }
+        }
+        return new GradedAttempt(sheet.attemptId, score, correctCount, correct);
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Answers of one attempt in the layout of the key. Only the last answer given
+     * for a question counts; answers that are not a valid option are ignored.
+     */
+    public final class AnswerSheet {
+        private final Long attemptId;
+        private final long[] bits;
+
+        private AnswerSheet(Long attemptId, long[] bits) {
+            this.attemptId = attemptId;
+            this.bits = bits;
+        }
+
+        public Long getAttemptId() {
+            return attemptId;
+        }
+
+        public void mark(Long questionId, String answer) {
+            Integer position = positions.get(questionId);
+            if (position == null || answer == null || answer.isBlank()) {
+                return;
+            }
+            int option;
+            try {
+                option = Integer.parseInt(answer.trim());
+            } catch (NumberFormatException e) {
+                return;
+            }
+            if (option < 0 || option >= optionCounts[position]) {
+                return;
+            }
+            for (int i = 0; i < optionCounts[position]; i++) {
+                int bit = offsets[position] + i;
+                bits[bit >>> 6] &= ~(1L << bit);
+            }
+            int bit = offsets[position] + option;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ir.maktabsharif.onlineexam.grading;
+import ir.maktabsharif.onlineexam.repository.ExamStatisticsJdbcRepository;
+import ir.maktabsharif.onlineexam.repository.GradingJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes one chunk of grades together with its contribution to the exam statistics,
+ * in one transaction. Attempts that another run graded first are left out of the
+ * statistics, so every attempt is counted exactly once. The transaction holds the
+ * exam's shared grading lock, which keeps a statistics rebuild from running between
+ * the grade update and the statistics upsert.
+ */
+@Component
+@RequiredArgsConstructor
+public class GradeWriter {
+
+    private final GradingJdbcRepository gradingJdbcRepository;
+    private final ExamStatisticsJdbcRepository examStatisticsJdbcRepository;
+
+    @Transactional
+    public int write(Long examId, AnswerKey answerKey, List<GradedAttempt> results) {
+        examStatisticsJdbcRepository.lockForGrading(examId);
+        int[] updated = gradingJdbcRepository.updateScores(results, LocalDateTime.now());
+        StatisticsDelta delta = new StatisticsDelta(examId, answerKey);
+        for (int i = 0; i < results.size(); i++) {
+            if (updated[i] != 0) {
+                delta.add(results.get(i));
+            }
+        }
+        examStatisticsJdbcRepository.apply(delta);
+        return (int) delta.getAttemptCount();
+    }
+}
@@ -0,0 +1,20 @@
+package ir.maktabsharif.onlineexam.grading;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Result of grading one attempt against an {@link AnswerKey}. {@code correct} is a
+ * bitmask over the key's question positions.
+ */
+@Getter
+@AllArgsConstructor
+public class GradedAttempt {
+    private final Long attemptId;
+    private final double score;
+    private final int correctCount;
+    private final long[] correct;
+
+    public boolean isCorrect(int position) {
+        return (correct[position >>> 6] & (1L << position)) != 0;
+    }
+}
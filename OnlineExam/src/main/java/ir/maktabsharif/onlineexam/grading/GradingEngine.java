@@ -0,0 +1,251 @@
+package ir.maktabsharif.onlineexam.grading;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import ir.maktabsharif.onlineexam.cache.QuestionSnapshotCache;
+import ir.maktabsharif.onlineexam.grading.AnswerKey.AnswerSheet;
+import ir.maktabsharif.onlineexam.model.enums.AttemptStatus;
+import ir.maktabsharif.onlineexam.repository.ExamAttemptRepository;
+import ir.maktabsharif.onlineexam.repository.GradingJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Grades the multiple-choice answers of finished attempts. A grading run streams the
+ * ungraded attempts of one exam through a forward-only cursor, turns each into an
+ * {@link AnswerSheet} as its rows go by, and hands chunks of {@code chunkSize} sheets
+ * to a fork-join pool. Each chunk is scored against the exam's {@link AnswerKey} and
+ * written back with one batched update, together with its share of the exam
+ * statistics (see {@link GradeWriter}). At most two chunks per worker are in flight,
+ * so memory stays flat however many students took the exam.
+ *
+ * <p>Every worker holds a JDBC connection while {@link GradeWriter} writes its chunk,
+ * and every run holds one more for its cursor, all from the application's Hikari pool.
+ * {@code app.exam.grading.parallelism} is therefore a small fixed number rather than
+ * the core count, and is capped at {@code maximum-pool-size - 2} so a run always
+ * leaves a connection for its cursor and one for web requests.
+ *
+ * <p>Runs start when a teacher asks for them and, once a course has ended, from a
+ * periodic sweep over exams that still have ungraded attempts and none in progress.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GradingEngine implements MeterBinder {
+
+    public static final List<AttemptStatus> FINISHED = List.of(AttemptStatus.SUBMITTED, AttemptStatus.EXPIRED);
+
+    private final GradingJdbcRepository gradingJdbcRepository;
+    private final GradeWriter gradeWriter;
+    private final ExamAttemptRepository examAttemptRepository;
+    private final QuestionSnapshotCache questionSnapshotCache;
+
+    @Value("${app.exam.grading.parallelism:2}")
+    private int parallelism;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    @Value("${app.exam.grading.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.exam.grading.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${app.exam.grading.sweep-interval-ms:300000}")
+    private long sweepIntervalMillis;
+
+    private ForkJoinPool gradingPool;
+    private ExecutorService coordinator;
+    private ScheduledExecutorService sweeper;
+    private final Map<Long, GradingRun> runs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() {
+        int workers = Math.max(1, Math.min(parallelism, connectionPoolSize - 2));
+        if (workers < parallelism) {
+            log.warn("Grading parallelism {} capped at {} to leave connections in a pool of {}",
+                    parallelism, workers, connectionPoolSize);
+        }
+        gradingPool = new ForkJoinPool(workers, pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("exam-grader-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        AtomicInteger threadCounter = new AtomicInteger();
+        coordinator = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "exam-grading-run-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exam-grading-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Grading engine started with {} workers, chunk size {}", workers, chunkSize);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        sweeper.shutdownNow();
+        coordinator.shutdownNow();
+        gradingPool.shutdown();
+        gradingPool.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.grading.runs.active", runs,
+                        current -> current.values().stream().filter(GradingRun::isRunning).count())
+                .register(registry);
+    }
+
+    /**
+     * Starts grading an exam in the background unless a run for it is already going,
+     * and returns that run's progress.
+     */
+    public GradingStatus grade(Long examId) {
+        GradingRun run = new GradingRun(examId);
+        GradingRun current = runs.compute(examId, (id, existing) ->
+                existing != null && existing.isRunning() ? existing : run);
+        if (current == run) {
+            coordinator.execute(() -> execute(run));
+        }
+        return current.toStatus();
+    }
+
+    public boolean isGrading(Long examId) {
+        GradingRun run = runs.get(examId);
+        return run != null && run.isRunning();
+    }
+
+    /** Progress of the current or last run of an exam on this node. */
+    public Optional<GradingStatus> getRun(Long examId) {
+        return Optional.ofNullable(runs.get(examId)).map(GradingRun::toStatus);
+    }
+
+    private void sweep() {
+        try {
+            List<Long> examIds = examAttemptRepository.findExamIdsReadyForGrading(FINISHED,
+                    AttemptStatus.IN_PROGRESS, LocalDate.now());
+            examIds.forEach(this::grade);
+        } catch (Exception e) {
+            log.error("Error looking for exams to grade", e);
+        }
+    }
+
+    private void execute(GradingRun run) {
+        Long examId = run.examId;
+        int maxInFlight = gradingPool.getParallelism() * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        try {
+            run.total.set(examAttemptRepository.countUngraded(examId, FINISHED));
+            AnswerKey answerKey = AnswerKey.of(questionSnapshotCache.get(examId));
+            List<AnswerSheet> chunk = new ArrayList<>(chunkSize);
+            AnswerSheet[] current = new AnswerSheet[1];
+
+            gradingJdbcRepository.streamUngradedAnswers(examId, fetchSize, (attemptId, questionId, answer) -> {
+                if (current[0] == null || !current[0].getAttemptId().equals(attemptId)) {
+                    if (current[0] != null) {
+                        chunk.add(current[0]);
+                        if (chunk.size() == chunkSize) {
+                            submit(run, answerKey, new ArrayList<>(chunk), inFlight);
+                            chunk.clear();
+                        }
+                    }
+                    current[0] = answerKey.newSheet(attemptId);
+                }
+                if (questionId != null) {
+                    current[0].mark(questionId, answer);
+                }
+            });
+            if (current[0] != null) {
+                chunk.add(current[0]);
+            }
+            if (!chunk.isEmpty()) {
+                submit(run, answerKey, chunk, inFlight);
+            }
+        } catch (Exception e) {
+            log.error("Error reading attempts of exam {}", examId, e);
+            run.aborted = true;
+        } finally {
+            inFlight.acquireUninterruptibly(maxInFlight);
+            if (run.aborted) {
+                run.failed.set(Math.max(run.failed.get(), run.total.get() - run.graded.get()));
+            }
+            run.completedAt = LocalDateTime.now();
+        }
+        log.info("Graded {} attempts of exam {} ({} failed)", run.graded.get(), examId, run.failed.get());
+    }
+
+    private void submit(GradingRun run, AnswerKey answerKey, List<AnswerSheet> sheets, Semaphore inFlight) {
+        inFlight.acquireUninterruptibly();
+        gradingPool.execute(() -> {
+            try {
+                List<GradedAttempt> results = new ArrayList<>(sheets.size());
+                for (AnswerSheet sheet : sheets) {
+                    results.add(answerKey.grade(sheet));
+                }
+                gradeWriter.write(run.examId, answerKey, results);
+                run.graded.addAndGet(results.size());
+            } catch (Exception e) {
+                log.error("Error writing {} grades of exam {}", sheets.size(), run.examId, e);
+                run.failed.addAndGet(sheets.size());
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private static class GradingRun {
+        private final Long examId;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong graded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile boolean aborted;
+        private volatile LocalDateTime completedAt;
+
+        GradingRun(Long examId) {
+            this.examId = examId;
+        }
+
+        boolean isRunning() {
+            return completedAt == null;
+        }
+
+        GradingStatus toStatus() {
+            return GradingStatus.builder()
+                    .examId(examId)
+                    .running(isRunning())
+                    .finishedAttempts(total.get())
+                    .gradedAttempts(graded.get())
+                    .failedAttempts(failed.get())
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ir.maktabsharif.onlineexam.grading;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradingStatus {
+    private Long examId;
+    private boolean running;
+    private long finishedAttempts;
+    private long gradedAttempts;
+    private long failedAttempts;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+
+    public int getPercent() {
+        return finishedAttempts == 0 ? 100 : (int) (gradedAttempts * 100 / finishedAttempts);
+    }
+}
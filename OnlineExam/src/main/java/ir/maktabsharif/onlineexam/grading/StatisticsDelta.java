@@ -0,0 +1,61 @@
+package ir.maktabsharif.onlineexam.grading;
+import ir.maktabsharif.onlineexam.model.entity.ExamStatistics;
+import lombok.Getter;
+
+/**
+ * Contribution of one chunk of graded attempts to an exam's statistics, collected in
+ * memory and applied with a single round of upserts.
+ */
+@Getter
+public class StatisticsDelta {
+
+    private final Long examId;
+    private final AnswerKey answerKey;
+    private long attemptCount;
+    private double scoreSum;
+    private double scoreSumSquares;
+    private double minScore = Double.POSITIVE_INFINITY;
+    private double maxScore = Double.NEGATIVE_INFINITY;
+    private final long[] buckets = new long[ExamStatistics.BUCKETS];
+    private final long[] correctCounts;
+
+    public StatisticsDelta(Long examId, AnswerKey answerKey) {
+        this.examId = examId;
+        this.answerKey = answerKey;
+        this.correctCounts = new long[answerKey.size()];
+    }
+
+    public void add(GradedAttempt attempt) {
+        double score = attempt.getScore();
+        attemptCount++;
+        scoreSum += score;
+        scoreSumSquares += score * score;
+        minScore = Math.min(minScore, score);
+        maxScore = Math.max(maxScore, score);
+        buckets[bucketOf(score, answerKey.getMaxScore())]++;
+        long[] correct = attempt.getCorrect();
+        for (int word = 0; word < correct.length; word++) {
+            long hits = correct[word];
+            while (hits != 0) {
+                correctCounts[(word << 6) + Long.numberOfTrailingZeros(hits)]++;
+                hits &= hits - 1;
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return attemptCount == 0;
+    }
+
+    /**
+     * Bucket of a score: bucket {@code i} holds scores from {@code i/BUCKETS} up to
+     * {@code (i+1)/BUCKETS} of the maximum, and the last one includes full marks.
+     */
+    public static int bucketOf(double score, double maxScore) {
+        if (maxScore <= 0) {
+            return 0;
+        }
+        int bucket = (int) Math.floor(score * ExamStatistics.BUCKETS / maxScore);
+        return Math.max(0, Math.min(ExamStatistics.BUCKETS - 1, bucket));
+    }
+}
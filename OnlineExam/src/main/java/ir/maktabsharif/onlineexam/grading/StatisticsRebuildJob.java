@@ -0,0 +1,93 @@
+package ir.maktabsharif.onlineexam.grading;
+import ir.maktabsharif.onlineexam.cache.QuestionSnapshotCache;
+import ir.maktabsharif.onlineexam.repository.ExamAttemptRepository;
+import ir.maktabsharif.onlineexam.repository.ExamStatisticsJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recomputes exam statistics from the raw attempts, for when the running totals can
+ * no longer be trusted: questions were edited after grading, or totals were lost.
+ * Chunks that are being written are kept apart from a rebuild by the exam's advisory
+ * lock (see {@link ExamStatisticsJdbcRepository}), on whichever node they run. Exams
+ * that are being graded on this node are still skipped, since the rebuild would be
+ * out of date again as soon as the run finished.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatisticsRebuildJob {
+
+    private final ExamStatisticsJdbcRepository examStatisticsJdbcRepository;
+    private final ExamAttemptRepository examAttemptRepository;
+    private final QuestionSnapshotCache questionSnapshotCache;
+    private final GradingEngine gradingEngine;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exam-statistics-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Rebuilds one exam on the calling thread. Returns {@code false} if the exam is
+     * being graded right now.
+     */
+    public boolean rebuild(Long examId) {
+        if (gradingEngine.isGrading(examId)) {
+            return false;
+        }
+        double maxScore = AnswerKey.of(questionSnapshotCache.get(examId)).getMaxScore();
+        examStatisticsJdbcRepository.rebuild(examId, maxScore);
+        return true;
+    }
+
+    /**
+     * Starts rebuilding every exam with graded attempts in the background. Returns
+     * {@code false} if a rebuild of all exams is already running.
+     */
+    public boolean rebuildAll() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> {
+            int rebuilt = 0;
+            try {
+                List<Long> examIds = examAttemptRepository.findGradedExamIds();
+                for (Long examId : examIds) {
+                    try {
+                        if (rebuild(examId)) {
+                            rebuilt++;
+                        }
+                    } catch (Exception e) {
+                        log.error("Error rebuilding statistics of exam {}", examId, e);
+                    }
+                }
+                log.info("Rebuilt statistics of {} of {} exams", rebuilt, examIds.size());
+            } catch (Exception e) {
+                log.error("Error rebuilding exam statistics", e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+}
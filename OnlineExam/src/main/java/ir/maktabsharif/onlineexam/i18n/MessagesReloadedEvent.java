@@ -0,0 +1,5 @@
+package ir.maktabsharif.onlineexam.i18n;
+
+/** Published after {@link PrecompiledMessageSource} has swapped in re-read bundles. */
+public record MessagesReloadedEvent(int messageCount) {
+}
@@ -0,0 +1,202 @@
+package ir.maktabsharif.onlineexam.i18n;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.support.AbstractMessageSource;
+import org.springframework.core.io.ClassPathResource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message source that reads the bundles once at startup into immutable per-language
+ * maps, each already merged with the default bundle, and parses every message into a
+ * {@link MessageFormat} up front. A lookup is one map read for the language and one
+ * for the code.
+ *
+ * <p>For development, {@link #watch()} starts a thread that re-reads the bundles when
+ * one of the files changes on disk (only possible when they are plain files, not jar
+ * entries) and swaps the new maps in with a single write, then publishes a
+ * {@link MessagesReloadedEvent} so holders of derived text can drop it.
+ */
+@Slf4j
+public class PrecompiledMessageSource extends AbstractMessageSource {
+
+    private final List<String> basenames;
+    private final List<Locale> locales;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Snapshot snapshot;
+    private WatchService watchService;
+
+    public PrecompiledMessageSource(List<String> basenames, List<Locale> locales,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.basenames = List.copyOf(basenames);
+        this.locales = List.copyOf(locales);
+        this.eventPublisher = eventPublisher;
+        this.snapshot = load();
+    }
+
+    @Override
+    protected String resolveCodeWithoutArguments(String code, Locale locale) {
+        return snapshot.bundle(locale).texts.get(code);
+    }
+
+    @Override
+    protected MessageFormat resolveCode(String code, Locale locale) {
+        return snapshot.bundle(locale).formats.get(code);
+    }
+
+    public void watch() {
+        Set<Path> directories = new HashSet<>();
+        for (String basename : basenames) {
+            for (String fileName : fileNames(basename)) {
+                ClassPathResource resource = new ClassPathResource(fileName);
+                try {
+                    if (resource.exists() && resource.isFile()) {
+                        directories.add(resource.getFile().toPath().getParent());
+                    }
+                } catch (IOException e) {
+                    log.warn("Cannot watch {}: {}", fileName, e.getMessage());
+                }
+            }
+        }
+        if (directories.isEmpty()) {
+            log.warn("Message bundles are not plain files, hot reload is not available");
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (Path directory : directories) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_CREATE);
+            }
+        } catch (IOException e) {
+            log.error("Could not start watching message bundles", e);
+            return;
+        }
+        Thread thread = new Thread(this::watchLoop, "message-bundle-watch");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching message bundles in {} for changes", directories);
+    }
+
+    public void stopWatching() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean bundleChanged = key.pollEvents().stream()
+                        .anyMatch(event -> event.context().toString().endsWith(".properties"));
+                key.reset();
+                if (bundleChanged) {
+                    // Editors often write a file in several steps; let them finish.
+                    TimeUnit.MILLISECONDS.sleep(200);
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reload() {
+        try {
+            snapshot = load();
+            log.info("Message bundles reloaded");
+            eventPublisher.publishEvent(new MessagesReloadedEvent(snapshot.defaultBundle().texts.size()));
+        } catch (RuntimeException e) {
+            log.error("Could not reload message bundles, keeping the previous ones", e);
+        }
+    }
+
+    private Snapshot load() {
+        Map<String, String> defaults = new HashMap<>();
+        for (String basename : basenames) {
+            read(basename + ".properties", defaults);
+        }
+        Map<String, Bundle> byLanguage = new HashMap<>();
+        for (Locale locale : locales) {
+            Map<String, String> texts = new HashMap<>(defaults);
+            for (String basename : basenames) {
+                read(basename + "_" + locale.getLanguage() + ".properties", texts);
+            }
+            byLanguage.put(locale.getLanguage(), compile(texts, locale));
+        }
+        return new Snapshot(Map.copyOf(byLanguage), compile(defaults, Locale.ROOT));
+    }
+
+    private Bundle compile(Map<String, String> texts, Locale locale) {
+        Map<String, MessageFormat> formats = new HashMap<>();
+        texts.forEach((code, text) -> {
+            try {
+                formats.put(code, createMessageFormat(text, locale));
+            } catch (IllegalArgumentException e) {
+                log.warn("Message {} is not a valid MessageFormat pattern: {}", code, e.getMessage());
+            }
+        });
+        return new Bundle(Map.copyOf(texts), Map.copyOf(formats));
+    }
+
+    private void read(String fileName, Map<String, String> target) {
+        ClassPathResource resource = new ClassPathResource(fileName);
+        if (!resource.exists()) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = resource.getInputStream();
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read message bundle " + fileName, e);
+        }
+        properties.stringPropertyNames().forEach(code -> target.put(code, properties.getProperty(code)));
+    }
+
+    private List<String> fileNames(String basename) {
+        List<String> names = new ArrayList<>();
+        names.add(basename + ".properties");
+        locales.forEach(locale -> names.add(basename + "_" + locale.getLanguage() + ".properties"));
+        return names;
+    }
+
+    private record Bundle(Map<String, String> texts, Map<String, MessageFormat> formats) {
+    }
+
+    /**
+     * Bundles of one load, by language. Lookups go by {@link Locale#getLanguage()},
+     * which returns a stored string, so nothing is built or remembered per locale:
+     * locales come from clients and must not grow any map.
+     */
+    private record Snapshot(Map<String, Bundle> byLanguage, Bundle defaultBundle) {
+
+        Bundle bundle(Locale locale) {
+            if (locale == null) {
+                return defaultBundle;
+            }
+            return byLanguage.getOrDefault(locale.getLanguage(), defaultBundle);
+        }
+    }
+}
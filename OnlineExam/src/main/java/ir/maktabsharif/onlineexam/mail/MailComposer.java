@@ -0,0 +1,92 @@
+package ir.maktabsharif.onlineexam.mail;
+import ir.maktabsharif.onlineexam.i18n.MessagesReloadedEvent;
+import ir.maktabsharif.onlineexam.model.enums.MailType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Builds mail jobs from the templates under {@code templates/mail}. The parts of a
+ * message that only depend on the locale (application title, subjects, base URL)
+ * are resolved once per locale and reused, so rendering a message only evaluates
+ * its template against the per-message variables.
+ */
+@Component
+@RequiredArgsConstructor
+public class MailComposer {
+
+    private final TemplateEngine templateEngine;
+    private final MessageSource messageSource;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${server.port:8069}")
+    private String serverPort;
+
+    private String baseUrl;
+    private final Map<Locale, LocalizedParts> localizedParts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        baseUrl = "http://localhost:" + serverPort;
+    }
+
+    public MailJob compose(MailType type, String to, Locale locale, Consumer<Context> variables) {
+        LocalizedParts parts = localizedParts.computeIfAbsent(locale, this::resolveLocalizedParts);
+        return new MailJob(to, type.getTemplate(), message -> {
+            MimeMessageHelper helper = new MimeMessageHelper(
+                    message,
+                    MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
+                    StandardCharsets.UTF_8.name()
+            );
+
+            Context context = new Context(locale, parts.variables());
+            variables.accept(context);
+
+            String html = templateEngine.process(type.getTemplate(), context);
+
+            helper.setTo(to);
+            helper.setSubject(parts.subjects().get(type));
+            helper.setText(html, true);
+            helper.setFrom(fromEmail);
+        });
+    }
+
+    public void clearCache() {
+        localizedParts.clear();
+    }
+
+    @EventListener(MessagesReloadedEvent.class)
+    public void onMessagesReloaded() {
+        clearCache();
+    }
+
+    private LocalizedParts resolveLocalizedParts(Locale locale) {
+        Map<MailType, String> subjects = new EnumMap<>(MailType.class);
+        for (MailType type : MailType.values()) {
+            subjects.put(type, messageSource.getMessage(type.getSubjectKey(), null, locale));
+        }
+        Map<String, Object> variables = Map.of(
+                "baseUrl", baseUrl,
+                "applicationTitle", messageSource.getMessage("application.title", null, locale)
+        );
+        return new LocalizedParts(Collections.unmodifiableMap(subjects), variables);
+    }
+
+    private record LocalizedParts(Map<MailType, String> subjects, Map<String, Object> variables) {
+    }
+}
@@ -0,0 +1,283 @@
+package ir.maktabsharif.onlineexam.mail;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import ir.maktabsharif.onlineexam.config.VirtualThreads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queues outgoing mail and sends it from a small pool of worker threads.
+ * Each worker drains up to {@code batchSize} jobs and hands them to
+ * {@link JavaMailSender#send(MimeMessage...)}, which delivers the whole batch
+ * over a single SMTP connection. Failed messages are retried with exponential backoff.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailDispatcher implements MeterBinder {
+
+    private final JavaMailSender mailSender;
+    private final VirtualThreads virtualThreads;
+
+    @Value("${app.mail.dispatcher.workers:2}")
+    private int workers;
+
+    @Value("${app.mail.dispatcher.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.mail.dispatcher.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.dispatcher.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.mail.dispatcher.retry-backoff-ms:2000}")
+    private long retryBackoffMillis;
+
+    private BlockingQueue<MailJob> queue;
+    /** Jobs waiting for their retry backoff; a job is taken out before it is re-queued. */
+    private final Set<MailJob> pendingRetries = ConcurrentHashMap.newKeySet();
+    private ExecutorService workerPool;
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean running;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        workerPool = Executors.newFixedThreadPool(workers, virtualThreads.threadFactory("mail-dispatcher"));
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mail-dispatcher-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            workerPool.submit(this::drainLoop);
+        }
+        log.info("Mail dispatcher started with {} {} workers, batch size {}",
+                workers, virtualThreads.isActive() ? "virtual" : "platform", batchSize);
+    }
+
+    /**
+     * Retries still waiting for their backoff are moved to the queue for one last
+     * attempt, then the workers get 30 seconds to empty it. Whatever is left after
+     * that is logged message by message. The scheduled retry tasks are only
+     * cancelled; the jobs themselves are taken from {@code pendingRetries}.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        if (!pendingRetries.isEmpty()) {
+            log.info("Mail dispatcher stopping, sending {} pending retries now", pendingRetries.size());
+            for (MailJob job : pendingRetries) {
+                requeueRetry(job);
+            }
+        }
+        running = false;
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(30, TimeUnit.SECONDS)) {
+            workerPool.shutdownNow();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Mail dispatcher stopped with {} unsent messages", queue.size());
+            for (MailJob job : queue) {
+                log.warn("Unsent at shutdown: {} to {}", job.getDescription(), job.getRecipient());
+            }
+        }
+    }
+
+    public void enqueue(MailJob job) {
+        if (!running) {
+            rejected.incrementAndGet();
+            log.error("Mail dispatcher is shut down, dropping {} to {}", job.getDescription(), job.getRecipient());
+            throw new RuntimeException("Mail dispatcher is shut down");
+        }
+        if (!queue.offer(job)) {
+            rejected.incrementAndGet();
+            log.error("Mail queue is full, dropping {} to {}", job.getDescription(), job.getRecipient());
+            throw new RuntimeException("Mail queue is full");
+        }
+        enqueued.incrementAndGet();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.mail.queue.depth", this, dispatcher -> dispatcher.queue == null ? 0 : dispatcher.queue.size())
+                .register(registry);
+        FunctionCounter.builder("app.mail.sent", sent, AtomicLong::get).register(registry);
+        FunctionCounter.builder("app.mail.retried", retried, AtomicLong::get).register(registry);
+        FunctionCounter.builder("app.mail.failed", failed, AtomicLong::get).register(registry);
+        FunctionCounter.builder("app.mail.rejected", rejected, AtomicLong::get).register(registry);
+    }
+
+    public MailDispatcherStats getStats() {
+        long sentCount = sent.get();
+        return MailDispatcherStats.builder()
+                .queueDepth(queue.size())
+                .queueCapacity(queueCapacity)
+                .enqueued(enqueued.get())
+                .sent(sentCount)
+                .retried(retried.get())
+                .failed(failed.get())
+                .rejected(rejected.get())
+                .batches(batches.get())
+                .averageLatencyMillis(sentCount == 0 ? 0 : totalLatencyNanos.get() / 1_000_000.0 / sentCount)
+                .maxLatencyMillis(maxLatencyNanos.get() / 1_000_000.0)
+                .build();
+    }
+
+    /**
+     * Sends the given jobs on the calling thread over one connection and returns
+     * the jobs that could not be delivered. Used by callers that track delivery
+     * state themselves, so no retry is scheduled here.
+     */
+    public Map<MailJob, Exception> sendNow(List<MailJob> jobs) {
+        Map<MailJob, Exception> failures = new IdentityHashMap<>();
+        Map<MimeMessage, MailJob> prepared = prepare(jobs, failures);
+        failures.putAll(deliver(prepared));
+        return failures;
+    }
+
+    private void drainLoop() {
+        List<MailJob> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                MailJob first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                Map<MailJob, Exception> prepareFailures = new IdentityHashMap<>();
+                Map<MimeMessage, MailJob> prepared = prepare(batch, prepareFailures);
+                failed.addAndGet(prepareFailures.size());
+                deliver(prepared).forEach(this::retryOrFail);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in mail dispatcher", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private Map<MimeMessage, MailJob> prepare(List<MailJob> jobs, Map<MailJob, Exception> failures) {
+        Map<MimeMessage, MailJob> prepared = new IdentityHashMap<>();
+        for (MailJob job : jobs) {
+            try {
+                MimeMessage message = mailSender.createMimeMessage();
+                job.getPreparator().prepare(message);
+                prepared.put(message, job);
+            } catch (Exception e) {
+                log.error("Error preparing {} to {}", job.getDescription(), job.getRecipient(), e);
+                failures.put(job, e);
+            }
+        }
+        return prepared;
+    }
+
+    private Map<MailJob, Exception> deliver(Map<MimeMessage, MailJob> prepared) {
+        Map<MailJob, Exception> failures = new IdentityHashMap<>();
+        if (prepared.isEmpty()) {
+            return failures;
+        }
+
+        MimeMessage[] messages = prepared.keySet().toArray(new MimeMessage[0]);
+        batches.incrementAndGet();
+        try {
+            mailSender.send(messages);
+            prepared.values().forEach(this::recordSent);
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            prepared.forEach((message, job) -> {
+                Exception cause = failedMessages.isEmpty() ? e : failedMessages.get(message);
+                if (cause == null) {
+                    recordSent(job);
+                } else {
+                    failures.put(job, cause);
+                }
+            });
+        } catch (MailException e) {
+            prepared.values().forEach(job -> failures.put(job, e));
+        }
+        return failures;
+    }
+
+    private void recordSent(MailJob job) {
+        long latency = System.nanoTime() - job.getEnqueuedAtNanos();
+        sent.incrementAndGet();
+        totalLatencyNanos.addAndGet(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        log.info("{} sent to {}", job.getDescription(), job.getRecipient());
+    }
+
+    private void retryOrFail(MailJob job, Exception cause) {
+        int attempt = job.nextAttempt();
+        if (attempt >= maxAttempts || !running) {
+            failed.incrementAndGet();
+            log.error("Giving up on {} to {} after {} attempts", job.getDescription(), job.getRecipient(), attempt, cause);
+            return;
+        }
+        long delay = retryBackoffMillis << (attempt - 1);
+        log.warn("Error sending {} to {}, retrying in {} ms: {}",
+                job.getDescription(), job.getRecipient(), delay, cause.getMessage());
+        pendingRetries.add(job);
+        retried.incrementAndGet();
+        try {
+            retryScheduler.schedule(() -> requeueRetry(job), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (pendingRetries.remove(job)) {
+                failed.incrementAndGet();
+                log.error("Mail dispatcher is shutting down, giving up on {} to {}",
+                        job.getDescription(), job.getRecipient(), cause);
+            }
+        }
+    }
+
+    /** Moves a retry to the queue unless the scheduler and stop() race for it and the other one won. */
+    private void requeueRetry(MailJob job) {
+        if (!pendingRetries.remove(job)) {
+            return;
+        }
+        if (!queue.offer(job)) {
+            failed.incrementAndGet();
+            log.error("Mail queue is full, dropping retry of {} to {}", job.getDescription(), job.getRecipient());
+        }
+    }
+}
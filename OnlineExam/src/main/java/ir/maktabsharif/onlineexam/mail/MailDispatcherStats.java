@@ -0,0 +1,22 @@
+package ir.maktabsharif.onlineexam.mail;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailDispatcherStats {
+    private int queueDepth;
+    private int queueCapacity;
+    private long enqueued;
+    private long sent;
+    private long retried;
+    private long failed;
+    private long rejected;
+    private long batches;
+    private double averageLatencyMillis;
+    private double maxLatencyMillis;
+}
@@ -0,0 +1,24 @@
+package ir.maktabsharif.onlineexam.mail;
+import lombok.Getter;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+
+@Getter
+public class MailJob {
+
+    private final String recipient;
+    private final String description;
+    private final MimeMessagePreparator preparator;
+    private final long enqueuedAtNanos;
+    private int attempts;
+
+    public MailJob(String recipient, String description, MimeMessagePreparator preparator) {
+        this.recipient = recipient;
+        this.description = description;
+        this.preparator = preparator;
+        this.enqueuedAtNanos = System.nanoTime();
+    }
+
+    int nextAttempt() {
+        return ++attempts;
+    }
+}
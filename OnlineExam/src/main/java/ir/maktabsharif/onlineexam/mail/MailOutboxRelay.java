@@ -0,0 +1,182 @@
+package ir.maktabsharif.onlineexam.mail;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.maktabsharif.onlineexam.config.VirtualThreads;
+import ir.maktabsharif.onlineexam.model.dto.MailOutboxPayload;
+import ir.maktabsharif.onlineexam.model.entity.MailOutbox;
+import ir.maktabsharif.onlineexam.model.enums.OutboxStatus;
+import ir.maktabsharif.onlineexam.repository.MailOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the mail outbox in batches. Rows are claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so any number of relay workers, on this node or
+ * others, can run side by side without sending the same row twice.
+ * <p>
+ * A batch takes two short transactions with the SMTP conversation between them, so no
+ * row lock or pooled connection is held while mail is sent. The claim pushes
+ * {@code next_attempt_at} out by {@code app.mail.outbox.lease-ms}, which keeps the rows
+ * away from other workers until the result is recorded; if this node dies mid-batch the
+ * lease runs out and the rows are picked up again (they may then be sent twice, which an
+ * outbox allows anyway). The lease must outlast sending one batch.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailOutboxRelay {
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MailComposer mailComposer;
+    private final MailDispatcher mailDispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final VirtualThreads virtualThreads;
+
+    @Value("${app.mail.outbox.workers:2}")
+    private int workers;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.poll-interval-ms:2000}")
+    private long pollIntervalMillis;
+
+    @Value("${app.mail.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.retry-backoff-ms:5000}")
+    private long retryBackoffMillis;
+
+    @Value("${app.mail.outbox.lease-ms:300000}")
+    private long leaseMillis;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newScheduledThreadPool(workers, virtualThreads.threadFactory("mail-outbox-relay"));
+        for (int i = 0; i < workers; i++) {
+            scheduler.scheduleWithFixedDelay(this::drain, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void drain() {
+        try {
+            int processed;
+            do {
+                processed = relayBatch();
+            } while (processed == batchSize && !scheduler.isShutdown());
+        } catch (Exception e) {
+            log.error("Error relaying mail outbox", e);
+        }
+    }
+
+    private int relayBatch() {
+        List<MailOutbox> rows = transactionTemplate.execute(status -> claim());
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+
+        Map<MailJob, Long> jobs = new IdentityHashMap<>();
+        Set<Long> broken = new HashSet<>();
+        for (MailOutbox row : rows) {
+            try {
+                jobs.put(toJob(row), row.getId());
+            } catch (Exception e) {
+                log.error("Error reading mail outbox row {}", row.getId(), e);
+                broken.add(row.getId());
+            }
+        }
+
+        Map<MailJob, Exception> failures = mailDispatcher.sendNow(new ArrayList<>(jobs.keySet()));
+        Map<Long, Exception> results = new HashMap<>();
+        jobs.forEach((job, id) -> results.put(id, failures.get(job)));
+        transactionTemplate.executeWithoutResult(status -> record(results, broken));
+        return rows.size();
+    }
+
+    /**
+     * Claims the next batch and leases it by moving {@code next_attempt_at} past the
+     * time it takes to send, then commits so the row locks are released.
+     */
+    private List<MailOutbox> claim() {
+        List<MailOutbox> rows = mailOutboxRepository.claimBatch(OutboxStatus.PENDING.name(), batchSize);
+        LocalDateTime leaseEnd = LocalDateTime.now().plusNanos(leaseMillis * 1_000_000);
+        rows.forEach(row -> row.setNextAttemptAt(leaseEnd));
+        return mailOutboxRepository.saveAll(rows);
+    }
+
+    private void record(Map<Long, Exception> results, Set<Long> broken) {
+        Set<Long> ids = new HashSet<>(results.keySet());
+        ids.addAll(broken);
+        LocalDateTime now = LocalDateTime.now();
+        List<MailOutbox> rows = mailOutboxRepository.findAllById(ids);
+        for (MailOutbox row : rows) {
+            if (broken.contains(row.getId())) {
+                row.setStatus(OutboxStatus.FAILED);
+                row.setLastError("Unreadable payload");
+                continue;
+            }
+            Exception failure = results.get(row.getId());
+            if (failure == null) {
+                row.setStatus(OutboxStatus.SENT);
+                row.setSentAt(now);
+                row.setLastError(null);
+            } else {
+                markFailed(row, failure.getMessage(), now);
+            }
+        }
+        mailOutboxRepository.saveAll(rows);
+    }
+
+    private MailJob toJob(MailOutbox row) throws Exception {
+        MailOutboxPayload payload = objectMapper.readValue(row.getPayload(), MailOutboxPayload.class);
+        Locale locale = Locale.forLanguageTag(row.getLocale());
+        return mailComposer.compose(row.getMailType(), row.getRecipient(), locale, context -> {
+            context.setVariable("user", payload.toUser());
+            switch (row.getMailType()) {
+                case USER_REJECTION -> context.setVariable("rejectionReason", payload.getReason());
+                case USER_DELETION -> context.setVariable("deletionReason", payload.getReason());
+                case USER_UPDATE -> context.setVariable("changes", payload.getChanges());
+                default -> {
+                }
+            }
+        });
+    }
+
+    private void markFailed(MailOutbox row, String error, LocalDateTime now) {
+        int attempts = row.getAttempts() + 1;
+        row.setAttempts(attempts);
+        row.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+        if (attempts >= maxAttempts) {
+            row.setStatus(OutboxStatus.FAILED);
+            log.error("Giving up on {} to {} after {} attempts", row.getMailType(), row.getRecipient(), attempts);
+        } else {
+            long delay = retryBackoffMillis << Math.min(attempts - 1, 10);
+            row.setNextAttemptAt(now.plusNanos(delay * 1_000_000));
+        }
+    }
+}
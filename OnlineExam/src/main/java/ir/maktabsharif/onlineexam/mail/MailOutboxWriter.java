@@ -0,0 +1,62 @@
+package ir.maktabsharif.onlineexam.mail;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.maktabsharif.onlineexam.model.dto.MailOutboxPayload;
+import ir.maktabsharif.onlineexam.model.entity.MailOutbox;
+import ir.maktabsharif.onlineexam.model.entity.User;
+import ir.maktabsharif.onlineexam.model.enums.MailType;
+import ir.maktabsharif.onlineexam.model.helper.UserUpdateChanges;
+import ir.maktabsharif.onlineexam.repository.MailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records a notification in the mail outbox as part of the caller's transaction,
+ * so the mail is only ever sent for changes that actually committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class MailOutboxWriter {
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(MailType type, User user, Locale locale, String reason, UserUpdateChanges changes) {
+        mailOutboxRepository.save(toOutbox(type, user, locale, reason, changes, LocalDateTime.now()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(MailType type, List<User> users, Locale locale, String reason) {
+        LocalDateTime now = LocalDateTime.now();
+        List<MailOutbox> rows = new ArrayList<>(users.size());
+        for (User user : users) {
+            rows.add(toOutbox(type, user, locale, reason, null, now));
+        }
+        mailOutboxRepository.saveAll(rows);
+    }
+
+    private MailOutbox toOutbox(MailType type, User user, Locale locale, String reason,
+                                UserUpdateChanges changes, LocalDateTime now) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(MailOutboxPayload.of(user, reason, changes));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serializing mail payload: " + e.getMessage());
+        }
+        return MailOutbox.builder()
+                .mailType(type)
+                .recipient(user.getEmail())
+                .locale(locale.toLanguageTag())
+                .payload(payload)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+    }
+}
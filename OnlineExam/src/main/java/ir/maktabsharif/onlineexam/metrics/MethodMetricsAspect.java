@@ -0,0 +1,60 @@
+package ir.maktabsharif.onlineexam.metrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public call into the service implementations, the repositories and the
+ * mail sender. Each layer gets its own timer, tagged with the class, the method and
+ * the exception the call ended with ({@code none} on success), so the timer's count
+ * doubles as the call and error counter.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MethodMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final MetricsSettings metricsSettings;
+
+    @Around("within(ir.maktabsharif.onlineexam.service.impl..*)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("app.service.calls", joinPoint);
+    }
+
+    @Around("execution(* ir.maktabsharif.onlineexam.repository..*.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("app.repository.calls", joinPoint);
+    }
+
+    @Around("execution(* org.springframework.mail.javamail.JavaMailSender+.send(..))")
+    public Object timeSmtp(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("app.smtp.send", joinPoint);
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!metricsSettings.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            Timer.builder(name)
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ir.maktabsharif.onlineexam.metrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Switches of the metrics layer that can be flipped at runtime from
+ * {@code /admin/metrics/settings}. Turning metrics off stops timing requests, service
+ * and repository calls, SMTP sends and SQL statements; meters that already exist keep
+ * their last values. A slow-query threshold of zero turns the slow-query log off.
+ */
+@Component
+public class MetricsSettings {
+
+    private volatile boolean enabled;
+    private volatile long slowQueryMillis;
+
+    public MetricsSettings(@Value("${app.metrics.enabled:true}") boolean enabled,
+                           @Value("${app.metrics.slow-query-ms:200}") long slowQueryMillis) {
+        this.enabled = enabled;
+        this.slowQueryMillis = slowQueryMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSlowQueryMillis() {
+        return slowQueryMillis;
+    }
+
+    public void setSlowQueryMillis(long slowQueryMillis) {
+        this.slowQueryMillis = Math.max(0, slowQueryMillis);
+    }
+
+    public boolean isSlowQueryLogEnabled() {
+        return slowQueryMillis > 0;
+    }
+}
@@ -0,0 +1,13 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttemptDeadline {
+    private Long attemptId;
+    private LocalDateTime deadline;
+}
@@ -0,0 +1,37 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEnrollmentResult {
+    private int enrolled;
+    private int alreadyEnrolled;
+
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+
+    public void addError(int lineNumber, String identifier, String message) {
+        errors.add(RowError.builder()
+                .lineNumber(lineNumber)
+                .identifier(identifier)
+                .message(message)
+                .build());
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int lineNumber;
+        private String identifier;
+        private String message;
+    }
+}
@@ -0,0 +1,30 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totals over all graded attempts of a course, summed from the per-exam statistics.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseStatistics {
+    private Long attemptCount;
+    private Double scoreSum;
+    private Double scoreSumSquares;
+
+    public double getMean() {
+        return attemptCount == 0 ? 0 : scoreSum / attemptCount;
+    }
+
+    public double getStandardDeviation() {
+        if (attemptCount == 0) {
+            return 0;
+        }
+        double mean = getMean();
+        return Math.sqrt(Math.max(0, scoreSumSquares / attemptCount - mean * mean));
+    }
+}
@@ -0,0 +1,24 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSummary {
+    private Long id;
+    private String courseCode;
+    private String title;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long teacherId;
+    private String teacherUsername;
+    private String teacherFirstName;
+    private String teacherLastName;
+    private String teacherEmail;
+    private int studentCount;
+}
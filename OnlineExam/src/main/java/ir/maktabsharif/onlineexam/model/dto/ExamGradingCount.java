@@ -0,0 +1,15 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamGradingCount {
+    private Long examId;
+    private long finished;
+    private long graded;
+}
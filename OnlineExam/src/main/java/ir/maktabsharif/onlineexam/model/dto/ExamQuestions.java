@@ -0,0 +1,32 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import lombok.Getter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of the questions of one exam, shared by every student taking it.
+ */
+@Getter
+public class ExamQuestions {
+    private final Long examId;
+    private final List<QuestionView> questions;
+    private final Map<Long, QuestionView> questionsById;
+
+    public ExamQuestions(Long examId, List<QuestionView> questions) {
+        this.examId = examId;
+        this.questions = List.copyOf(questions);
+        this.questionsById = this.questions.stream()
+                .collect(Collectors.toUnmodifiableMap(QuestionView::getId, Function.identity()));
+    }
+
+    public Optional<QuestionView> find(Long questionId) {
+        return Optional.ofNullable(questionsById.get(questionId));
+    }
+
+    public double getTotalScore() {
+        return questions.stream().mapToDouble(QuestionView::getScore).sum();
+    }
+}
@@ -0,0 +1,19 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamRow {
+    private Long id;
+    private String title;
+    private String description;
+    private Integer durationMinutes;
+    private Long teacherId;
+    private String teacherFirstName;
+    private String teacherLastName;
+}
@@ -0,0 +1,31 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import ir.maktabsharif.onlineexam.model.enums.AttemptStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamSession {
+    private Long attemptId;
+    private Long examId;
+    private Long courseId;
+    private Long studentId;
+    private String studentUsername;
+    private String examTitle;
+    private AttemptStatus status;
+    private long deadlineMillis;
+
+    public long remainingSeconds() {
+        return Math.max(0, (deadlineMillis - System.currentTimeMillis()) / 1000);
+    }
+
+    @JsonIgnore
+    public boolean isOpen() {
+        return status == AttemptStatus.IN_PROGRESS && System.currentTimeMillis() < deadlineMillis;
+    }
+}
@@ -0,0 +1,47 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamStatisticsView {
+    private Long examId;
+    private long attemptCount;
+    private double mean;
+    private double standardDeviation;
+    private Double minScore;
+    private Double maxScore;
+    private double maxPossibleScore;
+    private LocalDateTime updatedAt;
+
+    /** Attempt count per score bucket, lowest bucket first. */
+    @Builder.Default
+    private List<Long> histogram = new ArrayList<>();
+
+    @Builder.Default
+    private List<QuestionStatistics> questions = new ArrayList<>();
+
+    public long getLargestBucket() {
+        return histogram.stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QuestionStatistics {
+        private Long questionId;
+        private String text;
+        private long correctCount;
+
+        /** Share of graded attempts that answered correctly, the classical item difficulty. */
+        private double correctRate;
+    }
+}
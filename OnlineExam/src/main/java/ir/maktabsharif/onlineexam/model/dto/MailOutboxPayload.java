@@ -0,0 +1,48 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import ir.maktabsharif.onlineexam.model.entity.Role;
+import ir.maktabsharif.onlineexam.model.entity.User;
+import ir.maktabsharif.onlineexam.model.helper.UserUpdateChanges;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailOutboxPayload {
+    private String username;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private Set<String> roleNames;
+    private String reason;
+    private UserUpdateChanges changes;
+
+    public static MailOutboxPayload of(User user, String reason, UserUpdateChanges changes) {
+        return MailOutboxPayload.builder()
+                .username(user.getUsername())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .roleNames(user.getRoles().stream().map(Role::getName).collect(Collectors.toSet()))
+                .reason(reason)
+                .changes(changes)
+                .build();
+    }
+
+    public User toUser() {
+        return User.builder()
+                .username(username)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .roles(roleNames.stream()
+                        .map(name -> Role.builder().name(name).build())
+                        .collect(Collectors.toSet()))
+                .build();
+    }
+}
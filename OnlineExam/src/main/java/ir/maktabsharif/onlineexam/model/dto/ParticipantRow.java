@@ -0,0 +1,17 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticipantRow {
+    private Long id;
+    private String username;
+    private String firstName;
+    private String lastName;
+    private String email;
+}
@@ -0,0 +1,34 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionImportResult {
+    private int imported;
+
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+
+    public void addError(int rowNumber, String message) {
+        errors.add(RowError.builder()
+                .rowNumber(rowNumber)
+                .message(message)
+                .build());
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int rowNumber;
+        private String message;
+    }
+}
@@ -0,0 +1,25 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import ir.maktabsharif.onlineexam.model.enums.QuestionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionInput {
+    private QuestionType type;
+    private String text;
+
+    @Builder.Default
+    private List<String> options = new ArrayList<>();
+
+    /** Zero-based index into {@link #options} for multiple-choice questions. */
+    private Integer correctOption;
+
+    private Double score;
+}
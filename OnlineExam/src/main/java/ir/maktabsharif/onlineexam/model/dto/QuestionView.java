@@ -0,0 +1,20 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import ir.maktabsharif.onlineexam.model.enums.QuestionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class QuestionView {
+    private final Long id;
+    private final QuestionType type;
+    private final String text;
+    private final List<String> options;
+    private final Integer correctOption;
+    private final double score;
+
+    public boolean isMultipleChoice() {
+        return type == QuestionType.MULTIPLE_CHOICE;
+    }
+}
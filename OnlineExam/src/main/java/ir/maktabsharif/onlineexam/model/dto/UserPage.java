@@ -0,0 +1,20 @@
+package ir.maktabsharif.onlineexam.model.dto;
+import ir.maktabsharif.onlineexam.model.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPage {
+    private List<User> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private Long nextAfterId;
+    private Long totalElements;
+}
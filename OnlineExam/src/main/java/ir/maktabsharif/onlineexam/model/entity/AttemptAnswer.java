@@ -0,0 +1,28 @@
+package ir.maktabsharif.onlineexam.model.entity;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "attempt_answers",
+        uniqueConstraints = @UniqueConstraint(name = "uk_attempt_answers_attempt_question", columnNames = {"attempt_id", "question_id"}))
+public class AttemptAnswer extends BaseEntity<Long> {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "attempt_id", nullable = false)
+    private ExamAttempt attempt;
+
+    @Column(name = "question_id", nullable = false)
+    private Long questionId;
+
+    @Column(columnDefinition = "TEXT")
+    private String answer;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -1,6 +1,8 @@
 package ir.maktabsharif.onlineexam.model.entity;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +14,7 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Table(name = "courses")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Course extends BaseEntity<Long> {
 
     @Column(nullable = false, unique = true)
@@ -31,6 +34,7 @@ public class Course extends BaseEntity<Long> {
     private User teacher;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "course_students",
             joinColumns = @JoinColumn(name = "course_id"),
@@ -0,0 +1,42 @@
+package ir.maktabsharif.onlineexam.model.entity;
+import ir.maktabsharif.onlineexam.model.enums.AttemptStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "exam_attempts",
+        uniqueConstraints = @UniqueConstraint(name = "uk_exam_attempts_exam_student", columnNames = {"exam_id", "student_id"}),
+        indexes = @Index(name = "idx_exam_attempts_status_deadline", columnList = "status, deadline"))
+public class ExamAttempt extends BaseEntity<Long> {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "exam_id", nullable = false)
+    private Exam exam;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private User student;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false)
+    @Builder.Default
+    private AttemptStatus status = AttemptStatus.IN_PROGRESS;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime deadline;
+
+    private LocalDateTime submittedAt;
+
+    private Double score;
+
+    private LocalDateTime gradedAt;
+}
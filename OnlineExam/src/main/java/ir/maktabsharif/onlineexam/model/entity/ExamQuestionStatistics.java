@@ -0,0 +1,24 @@
+package ir.maktabsharif.onlineexam.model.entity;
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "exam_question_statistics",
+        uniqueConstraints = @UniqueConstraint(name = "uk_exam_question_statistics_exam_question", columnNames = {"exam_id", "question_id"}))
+public class ExamQuestionStatistics extends BaseEntity<Long> {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "exam_id", nullable = false)
+    private Exam exam;
+
+    @Column(name = "question_id", nullable = false)
+    private Long questionId;
+
+    @Column(nullable = false)
+    private long correctCount;
+}
@@ -0,0 +1,24 @@
+package ir.maktabsharif.onlineexam.model.entity;
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "exam_score_buckets",
+        uniqueConstraints = @UniqueConstraint(name = "uk_exam_score_buckets_exam_bucket", columnNames = {"exam_id", "bucket"}))
+public class ExamScoreBucket extends BaseEntity<Long> {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "exam_id", nullable = false)
+    private Exam exam;
+
+    @Column(nullable = false)
+    private int bucket;
+
+    @Column(nullable = false)
+    private long attemptCount;
+}
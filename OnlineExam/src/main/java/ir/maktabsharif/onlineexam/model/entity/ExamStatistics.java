@@ -0,0 +1,42 @@
+package ir.maktabsharif.onlineexam.model.entity;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals over the graded attempts of one exam. Count, sum and sum of squares
+ * are enough to derive mean and standard deviation, and they add up across exams.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "exam_statistics",
+        uniqueConstraints = @UniqueConstraint(name = "uk_exam_statistics_exam", columnNames = "exam_id"))
+public class ExamStatistics extends BaseEntity<Long> {
+
+    /** Number of histogram buckets, each covering an equal share of the maximum score. */
+    public static final int BUCKETS = 10;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "exam_id", nullable = false)
+    private Exam exam;
+
+    @Column(nullable = false)
+    private long attemptCount;
+
+    @Column(nullable = false)
+    private double scoreSum;
+
+    @Column(nullable = false)
+    private double scoreSumSquares;
+
+    private Double minScore;
+
+    private Double maxScore;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
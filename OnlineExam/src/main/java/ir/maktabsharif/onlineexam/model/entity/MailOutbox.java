@@ -0,0 +1,51 @@
+package ir.maktabsharif.onlineexam.model.entity;
+import ir.maktabsharif.onlineexam.model.enums.MailType;
+import ir.maktabsharif.onlineexam.model.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "mail_outbox", indexes = {
+        @Index(name = "idx_mail_outbox_status_next_attempt", columnList = "status, nextAttemptAt")
+})
+public class MailOutbox extends BaseEntity<Long> {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private MailType mailType;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false, length = 16)
+    private String locale;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,45 @@
+package ir.maktabsharif.onlineexam.model.entity;
+import ir.maktabsharif.onlineexam.model.enums.QuestionType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "questions", indexes = {
+        @Index(name = "idx_questions_exam_sort_order", columnList = "exam_id, sortOrder")
+})
+public class Question extends BaseEntity<Long> {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "exam_id", nullable = false)
+    private Exam exam;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false)
+    private QuestionType type;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String text;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    @Builder.Default
+    private List<String> options = new ArrayList<>();
+
+    private Integer correctOption;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private double score = 1;
+
+    @Column(nullable = false)
+    private int sortOrder;
+}
@@ -2,6 +2,8 @@ package ir.maktabsharif.onlineexam.model.entity;
 import ir.maktabsharif.onlineexam.model.enums.RoleType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Getter
@@ -10,6 +12,7 @@ import lombok.*;
 @AllArgsConstructor
 @Builder
 @Table(name = "roles")
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 public class Role extends BaseEntity<Long> {
 
     @Column(unique = true, nullable = false)
@@ -2,6 +2,9 @@ package ir.maktabsharif.onlineexam.model.entity;
 import ir.maktabsharif.onlineexam.model.enums.UserStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -12,6 +15,7 @@ import java.util.Set;
 @AllArgsConstructor
 @Builder
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class User extends BaseEntity<Long> {
 
     @Column(unique = true, nullable = false)
@@ -36,12 +40,18 @@ public class User extends BaseEntity<Long> {
     @Column(length = 1000)
     private String rejectionReason;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id")
     )
     private Set<Role> roles = new HashSet<>();
+
+    public boolean hasRole(String roleName) {
+        return roles != null && roles.stream().anyMatch(role -> role.getName().equals(roleName));
+    }
 }
 
@@ -0,0 +1,7 @@
+package ir.maktabsharif.onlineexam.model.enums;
+
+public enum AttemptStatus {
+    IN_PROGRESS,
+    SUBMITTED,
+    EXPIRED
+}
@@ -0,0 +1,19 @@
+package ir.maktabsharif.onlineexam.model.enums;
+import lombok.Getter;
+
+@Getter
+public enum MailType {
+    USER_APPROVAL("mail/user_approval", "mail.user.approval.subject"),
+    USER_REJECTION("mail/user_rejection", "mail.user.rejection.subject"),
+    USER_UPDATE("mail/user_update", "mail.user.update.subject"),
+    USER_DELETION("mail/user_deletion", "mail.user.deletion.subject"),
+    PASSWORD_RESET("mail/password_reset_code", "mail.password.reset.subject");
+
+    private final String template;
+    private final String subjectKey;
+
+    MailType(String template, String subjectKey) {
+        this.template = template;
+        this.subjectKey = subjectKey;
+    }
+}
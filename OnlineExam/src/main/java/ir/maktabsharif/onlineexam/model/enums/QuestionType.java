@@ -0,0 +1,6 @@
+package ir.maktabsharif.onlineexam.model.enums;
+
+public enum QuestionType {
+    MULTIPLE_CHOICE,
+    DESCRIPTIVE
+}
@@ -1,5 +1,10 @@
 package ir.maktabsharif.onlineexam.model.enums;
 import lombok.Getter;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Getter
 public enum RoleType {
@@ -7,6 +12,9 @@ public enum RoleType {
     ROLE_TEACHER("استاد"),
     ROLE_STUDENT("دانشجو");
 
+    private static final Map<String, RoleType> BY_NAME = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(RoleType::name, Function.identity()));
+
     private final String persianName;
 
     RoleType(String persianName) {
@@ -17,11 +25,8 @@ public enum RoleType {
         if (roleName == null) {
             return null;
         }
-        try {
-            return valueOf(roleName.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            return null;
-        }
+        RoleType roleType = BY_NAME.get(roleName);
+        return roleType != null ? roleType : BY_NAME.get(roleName.toUpperCase(Locale.ROOT));
     }
 
     public static String getPersianName(String roleName) {
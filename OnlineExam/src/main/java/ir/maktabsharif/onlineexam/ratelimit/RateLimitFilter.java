@@ -0,0 +1,114 @@
+package ir.maktabsharif.onlineexam.ratelimit;
+import ir.maktabsharif.onlineexam.geoip.GeoIpService;
+import ir.maktabsharif.onlineexam.ratelimit.RateLimiter.Bucket;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.LocaleResolver;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Applies the {@link RateLimiter} to the form posts of sign-in, registration and
+ * password reset. Runs in the security filter chain ahead of authentication, so a
+ * rejected request never reaches the user lookup, the database or the mail server.
+ * Every request draws from its client IP's bucket and the endpoint's global bucket,
+ * and from the bucket of the email or username it names, if any.
+ */
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final MessageSource messageSource;
+    private final LocaleResolver localeResolver;
+    private final GeoIpService geoIpService;
+
+    @Value("${app.rate-limit.ip.capacity:100}")
+    private int ipCapacity;
+
+    @Value("${app.rate-limit.ip.per-minute:300}")
+    private int ipPerMinute;
+
+    @Value("${app.rate-limit.identity.capacity:5}")
+    private int identityCapacity;
+
+    @Value("${app.rate-limit.identity.per-minute:2}")
+    private int identityPerMinute;
+
+    @Value("${app.rate-limit.global.capacity:2000}")
+    private int globalCapacity;
+
+    @Value("${app.rate-limit.global.per-minute:12000}")
+    private int globalPerMinute;
+
+    public RateLimitFilter(RateLimiter rateLimiter, MessageSource messageSource, LocaleResolver localeResolver,
+                           GeoIpService geoIpService) {
+        this.rateLimiter = rateLimiter;
+        this.messageSource = messageSource;
+        this.localeResolver = localeResolver;
+        this.geoIpService = geoIpService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || !"POST".equals(request.getMethod()) || group(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String group = group(request);
+        List<Bucket> buckets = new ArrayList<>(3);
+        buckets.add(new Bucket("ip", request.getRemoteAddr(), ipCapacity, ipPerMinute));
+        String identity = request.getParameter(group.equals("login") ? "username" : "email");
+        if (identity != null && !identity.isBlank()) {
+            buckets.add(new Bucket("identity", identity.trim().toLowerCase(Locale.ROOT),
+                    identityCapacity, identityPerMinute));
+        }
+        buckets.add(new Bucket("global", "all", globalCapacity, globalPerMinute));
+
+        long retryAfterMillis = rateLimiter.tryAcquire(group, buckets);
+        if (retryAfterMillis == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterSeconds = Math.max(1, (retryAfterMillis + 999) / 1000);
+        if (log.isDebugEnabled()) {
+            log.debug("Rate limited {} request from {} ({}), retry after {}s", group, request.getRemoteAddr(),
+                    geoIpService.countryCode(request.getRemoteAddr()).orElse("unknown country"), retryAfterSeconds);
+        }
+        Locale locale = localeResolver.resolveLocale(request);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("text/plain");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(messageSource.getMessage("ratelimit.exceeded",
+                new Object[]{retryAfterSeconds}, locale));
+    }
+
+    private static String group(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.equals("/login")) {
+            return "login";
+        }
+        if (path.equals("/register") || path.startsWith("/register/")) {
+            return "register";
+        }
+        if (path.startsWith("/password-reset/")) {
+            return "password_reset";
+        }
+        return null;
+    }
+}
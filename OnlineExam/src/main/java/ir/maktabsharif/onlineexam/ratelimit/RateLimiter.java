@@ -0,0 +1,139 @@
+package ir.maktabsharif.onlineexam.ratelimit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token buckets kept in Redis, shared by every node. A request names the buckets it
+ * draws from (per IP, per email or username, per endpoint group) and one script call
+ * refills them all from Redis' clock and takes a token from each only if every one of
+ * them has a token left.
+ *
+ * <p>When a bucket runs dry, the time until it refills is remembered on this node, and
+ * further requests against it are turned away without asking Redis until then. If
+ * Redis cannot be reached the request is allowed, so the limiter never takes sign-in
+ * down with it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimiter {
+
+    private static final String KEY_PREFIX = "rate_limit:";
+
+    /*
+     * KEYS: one bucket hash per key. ARGV: capacity and refill rate (tokens per ms) per key.
+     * Returns {1, 0, 0} when allowed, or {0, index of the empty bucket, ms until it has a token}.
+     */
+    private static final RedisScript<List> ACQUIRE_SCRIPT = RedisScript.of("""
+            local clock = redis.call('TIME')
+            local now = tonumber(clock[1]) * 1000 + math.floor(tonumber(clock[2]) / 1000)
+            local tokens = {}
+            for i = 1, #KEYS do
+              local capacity = tonumber(ARGV[2 * i - 1])
+              local rate = tonumber(ARGV[2 * i])
+              local state = redis.call('HMGET', KEYS[i], 't', 'ts')
+              local available = tonumber(state[1]) or capacity
+              local updated = tonumber(state[2]) or now
+              available = math.min(capacity, available + math.max(0, now - updated) * rate)
+              if available < 1 then
+                return {0, i, math.ceil((1 - available) / rate)}
+              end
+              tokens[i] = available
+            end
+            for i = 1, #KEYS do
+              local capacity = tonumber(ARGV[2 * i - 1])
+              local rate = tonumber(ARGV[2 * i])
+              redis.call('HSET', KEYS[i], 't', tostring(tokens[i] - 1), 'ts', tostring(now))
+              redis.call('PEXPIRE', KEYS[i], math.ceil(capacity / rate))
+            end
+            return {1, 0, 0}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.local-cache-size:100000}")
+    private long localCacheSize;
+
+    private Cache<String, Long> blockedUntil;
+
+    @PostConstruct
+    void init() {
+        blockedUntil = Caffeine.newBuilder()
+                .maximumSize(localCacheSize)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes one token from every bucket, or none if any of them is empty.
+     * Returns 0 when the request may go ahead, otherwise the milliseconds to wait.
+     */
+    public long tryAcquire(String group, List<Bucket> buckets) {
+        long now = System.currentTimeMillis();
+        for (Bucket bucket : buckets) {
+            Long until = blockedUntil.getIfPresent(key(group, bucket));
+            if (until != null && until > now) {
+                reject(group, bucket);
+                return until - now;
+            }
+        }
+
+        List<String> keys = new ArrayList<>(buckets.size());
+        List<String> args = new ArrayList<>(buckets.size() * 2);
+        for (Bucket bucket : buckets) {
+            keys.add(key(group, bucket));
+            args.add(String.valueOf(bucket.capacity()));
+            args.add(String.valueOf(bucket.perMinute() / 60_000.0));
+        }
+
+        List<?> result;
+        try {
+            result = redisTemplate.execute(ACQUIRE_SCRIPT, keys, args.toArray());
+        } catch (Exception e) {
+            log.warn("Rate limiter unavailable, allowing request: {}", e.getMessage());
+            return 0;
+        }
+        if (result == null || ((Number) result.get(0)).longValue() == 1) {
+            return 0;
+        }
+        Bucket empty = buckets.get(((Number) result.get(1)).intValue() - 1);
+        long retryAfter = Math.max(1, ((Number) result.get(2)).longValue());
+        blockedUntil.put(key(group, empty), now + retryAfter);
+        reject(group, empty);
+        return retryAfter;
+    }
+
+    private void reject(String group, Bucket bucket) {
+        meterRegistry.counter("app.rate.limit.rejected", "group", group, "scope", bucket.scope()).increment();
+    }
+
+    private static String key(String group, Bucket bucket) {
+        return KEY_PREFIX + group + ":" + bucket.scope() + ":" + bucket.id();
+    }
+
+    /**
+     * One bucket: {@code capacity} tokens, refilled at {@code perMinute} tokens a minute.
+     * {@code scope} says what the bucket counts (ip, identity, global) and {@code id} which one.
+     */
+    public record Bucket(String scope, String id, int capacity, int perMinute) {
+    }
+}
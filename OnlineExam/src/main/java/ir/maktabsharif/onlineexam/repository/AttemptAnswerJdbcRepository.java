@@ -0,0 +1,62 @@
+package ir.maktabsharif.onlineexam.repository;
+import ir.maktabsharif.onlineexam.model.dto.SavedAnswer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Batched upserts for answers flushed from the Redis exam session. The
+ * {@code updated_at} guard makes flushes order-independent: an older copy of an
+ * answer never overwrites a newer one, whichever flush reaches the database last.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AttemptAnswerJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public int[] upsertAnswers(Collection<AnswerRow> rows) {
+        MapSqlParameterSource[] batch = rows.stream()
+                .map(row -> new MapSqlParameterSource()
+                        .addValue("attemptId", row.getAttemptId())
+                        .addValue("questionId", row.getQuestionId())
+                        .addValue("answer", row.getAnswer())
+                        .addValue("updatedAt", new Timestamp(row.getSavedAt())))
+                .toArray(MapSqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate(
+                "INSERT INTO attempt_answers (id, attempt_id, question_id, answer, updated_at) " +
+                "VALUES (nextval('db_seq'), :attemptId, :questionId, :answer, :updatedAt) " +
+                "ON CONFLICT (attempt_id, question_id) DO UPDATE " +
+                "SET answer = EXCLUDED.answer, updated_at = EXCLUDED.updated_at " +
+                "WHERE attempt_answers.updated_at <= EXCLUDED.updated_at",
+                batch);
+    }
+
+    public Map<Long, SavedAnswer> findAnswers(Long attemptId) {
+        Map<Long, SavedAnswer> answers = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT question_id, answer, updated_at FROM attempt_answers WHERE attempt_id = :attemptId",
+                new MapSqlParameterSource("attemptId", attemptId),
+                rs -> {
+                    answers.put(rs.getLong("question_id"),
+                            new SavedAnswer(rs.getString("answer"), rs.getTimestamp("updated_at").getTime()));
+                });
+        return answers;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class AnswerRow {
+        private final Long attemptId;
+        private final Long questionId;
+        private final String answer;
+        private final long savedAt;
+    }
+}
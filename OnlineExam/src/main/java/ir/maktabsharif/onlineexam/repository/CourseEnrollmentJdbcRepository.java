@@ -0,0 +1,86 @@
+package ir.maktabsharif.onlineexam.repository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Plain JDBC access for bulk enrollment, where loading {@code Course.students}
+ * through JPA would pull the whole roster into memory for every row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CourseEnrollmentJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public Optional<CourseRef> findCourse(Long courseId) {
+        List<CourseRef> rows = jdbcTemplate.query(
+                "SELECT id, teacher_id FROM courses WHERE id = :courseId",
+                new MapSqlParameterSource("courseId", courseId),
+                (rs, rowNum) -> new CourseRef(rs.getLong("id"), rs.getObject("teacher_id", Long.class)));
+        return rows.stream().findFirst();
+    }
+
+    public List<Candidate> findCandidates(Long courseId, Collection<String> identifiers) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("courseId", courseId)
+                .addValue("identifiers", identifiers)
+                .addValue("roleName", "ROLE_STUDENT");
+        return jdbcTemplate.query(
+                "SELECT u.id, u.username, u.email, u.status, " +
+                "EXISTS (SELECT 1 FROM user_roles ur JOIN roles r ON ur.role_id = r.id " +
+                "        WHERE ur.user_id = u.id AND r.name = :roleName) AS is_student, " +
+                "EXISTS (SELECT 1 FROM course_students cs " +
+                "        WHERE cs.course_id = :courseId AND cs.student_id = u.id) AS is_enrolled " +
+                "FROM users u " +
+                "WHERE u.username IN (:identifiers) OR u.email IN (:identifiers)",
+                params,
+                (rs, rowNum) -> new Candidate(
+                        rs.getLong("id"),
+                        rs.getString("username"),
+                        rs.getString("email"),
+                        rs.getInt("status"),
+                        rs.getBoolean("is_student"),
+                        rs.getBoolean("is_enrolled")));
+    }
+
+    /**
+     * Enrolls the given students and returns how many were actually added. Students a
+     * concurrent import enrolled in the meantime are skipped by the unique index on
+     * {@code (course_id, student_id)} rather than inserted twice.
+     */
+    public int insertEnrollments(Long courseId, Collection<Long> studentIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("courseId", courseId)
+                .addValue("studentIds", studentIds);
+        return jdbcTemplate.update(
+                "INSERT INTO course_students (course_id, student_id) " +
+                "SELECT :courseId, u.id FROM users u WHERE u.id IN (:studentIds) " +
+                "ON CONFLICT (course_id, student_id) DO NOTHING",
+                params);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CourseRef {
+        private final Long id;
+        private final Long teacherId;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Candidate {
+        private final Long id;
+        private final String username;
+        private final String email;
+        private final int status;
+        private final boolean student;
+        private final boolean enrolled;
+    }
+}
@@ -1,4 +1,6 @@
 package ir.maktabsharif.onlineexam.repository;
+import ir.maktabsharif.onlineexam.model.dto.CourseSummary;
+import ir.maktabsharif.onlineexam.model.dto.ParticipantRow;
 import ir.maktabsharif.onlineexam.model.entity.Course;
 import ir.maktabsharif.onlineexam.model.entity.User;
 import org.springframework.data.jpa.repository.EntityGraph;
@@ -11,13 +13,14 @@ import java.util.Optional;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
+    String COURSE_SUMMARY = "SELECT new ir.maktabsharif.onlineexam.model.dto.CourseSummary(" +
+            "c.id, c.courseCode, c.title, c.startDate, c.endDate, " +
+            "t.id, t.username, t.firstName, t.lastName, t.email, SIZE(c.students)) " +
+            "FROM Course c LEFT JOIN c.teacher t ";
+
     Optional<Course> findByCourseCode(String courseCode);
     List<Course> findByTeacher(User teacher);
     
-    @EntityGraph(attributePaths = {"students", "teacher"})
-    @Query("SELECT c FROM Course c WHERE c.teacher = :teacher")
-    List<Course> findByTeacherWithStudents(@Param("teacher") User teacher);
-    
     List<Course> findByStudentsContaining(User student);
     
     @EntityGraph(attributePaths = {"students", "teacher"})
@@ -27,5 +30,27 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     @EntityGraph(attributePaths = {"students", "teacher"})
     @Override
     Optional<Course> findById(Long id);
+
+    @Query(COURSE_SUMMARY + "ORDER BY c.id")
+    List<CourseSummary> findAllSummaries();
+
+    @Query(COURSE_SUMMARY + "WHERE t.id = :teacherId ORDER BY c.id")
+    List<CourseSummary> findSummariesByTeacherId(@Param("teacherId") Long teacherId);
+
+    @Query(COURSE_SUMMARY + "WHERE EXISTS (SELECT 1 FROM Course sc JOIN sc.students s " +
+           "WHERE sc = c AND s.id = :studentId) ORDER BY c.id")
+    List<CourseSummary> findSummariesByStudentId(@Param("studentId") Long studentId);
+
+    @Query("SELECT COUNT(s) > 0 FROM Course c JOIN c.students s WHERE c.id = :courseId AND s.id = :studentId")
+    boolean isStudentEnrolled(@Param("courseId") Long courseId, @Param("studentId") Long studentId);
+
+    @Query(COURSE_SUMMARY + "WHERE c.id = :id")
+    Optional<CourseSummary> findSummaryById(@Param("id") Long id);
+
+    @Query("SELECT new ir.maktabsharif.onlineexam.model.dto.ParticipantRow(" +
+           "s.id, s.username, s.firstName, s.lastName, s.email) " +
+           "FROM Course c JOIN c.students s WHERE c.id = :courseId " +
+           "ORDER BY s.lastName, s.firstName")
+    List<ParticipantRow> findStudentRows(@Param("courseId") Long courseId);
 }
 
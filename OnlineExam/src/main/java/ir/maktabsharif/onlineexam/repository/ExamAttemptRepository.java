@@ -0,0 +1,69 @@
+package ir.maktabsharif.onlineexam.repository;
+import ir.maktabsharif.onlineexam.model.dto.AttemptDeadline;
+import ir.maktabsharif.onlineexam.model.dto.ExamGradingCount;
+import ir.maktabsharif.onlineexam.model.entity.ExamAttempt;
+import ir.maktabsharif.onlineexam.model.enums.AttemptStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExamAttemptRepository extends JpaRepository<ExamAttempt, Long> {
+    @Query("SELECT a FROM ExamAttempt a JOIN FETCH a.exam e JOIN FETCH e.course JOIN FETCH a.student s " +
+           "WHERE e.id = :examId AND s.id = :studentId")
+    Optional<ExamAttempt> findByExamIdAndStudentId(@Param("examId") Long examId, @Param("studentId") Long studentId);
+
+    @Query("SELECT a FROM ExamAttempt a JOIN FETCH a.exam e JOIN FETCH e.course JOIN FETCH a.student " +
+           "WHERE a.id = :id")
+    Optional<ExamAttempt> findWithExamById(@Param("id") Long id);
+
+    boolean existsByExamId(Long examId);
+
+    @Query("SELECT a FROM ExamAttempt a WHERE a.student.id = :studentId AND a.exam.course.id = :courseId")
+    List<ExamAttempt> findByStudentIdAndCourseId(@Param("studentId") Long studentId, @Param("courseId") Long courseId);
+
+    @Query("SELECT new ir.maktabsharif.onlineexam.model.dto.AttemptDeadline(a.id, a.deadline) " +
+           "FROM ExamAttempt a WHERE a.status = :status")
+    List<AttemptDeadline> findDeadlinesByStatus(@Param("status") AttemptStatus status);
+
+    @Query("SELECT a.id FROM ExamAttempt a WHERE a.status = :status AND a.deadline < :before ORDER BY a.deadline")
+    List<Long> findOverdueIds(@Param("status") AttemptStatus status, @Param("before") LocalDateTime before,
+                              Pageable pageable);
+
+    @Query("SELECT new ir.maktabsharif.onlineexam.model.dto.ExamGradingCount(a.exam.id, COUNT(a), COUNT(a.gradedAt)) " +
+           "FROM ExamAttempt a WHERE a.exam.course.id = :courseId AND a.status IN :statuses GROUP BY a.exam.id")
+    List<ExamGradingCount> countGradingByCourseId(@Param("courseId") Long courseId,
+                                                  @Param("statuses") Collection<AttemptStatus> statuses);
+
+    @Query("SELECT COUNT(a) FROM ExamAttempt a " +
+           "WHERE a.exam.id = :examId AND a.status IN :statuses AND a.gradedAt IS NULL")
+    long countUngraded(@Param("examId") Long examId, @Param("statuses") Collection<AttemptStatus> statuses);
+
+    @Query("SELECT DISTINCT a.exam.id FROM ExamAttempt a " +
+           "WHERE a.status IN :statuses AND a.gradedAt IS NULL AND a.exam.course.endDate < :today " +
+           "AND NOT EXISTS (SELECT o.id FROM ExamAttempt o WHERE o.exam = a.exam AND o.status = :running)")
+    List<Long> findExamIdsReadyForGrading(@Param("statuses") Collection<AttemptStatus> statuses,
+                                          @Param("running") AttemptStatus running,
+                                          @Param("today") LocalDate today);
+
+    @Query("SELECT DISTINCT a.exam.id FROM ExamAttempt a WHERE a.gradedAt IS NOT NULL")
+    List<Long> findGradedExamIds();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ExamAttempt a SET a.status = :status, a.submittedAt = :submittedAt " +
+           "WHERE a.id = :id AND a.status = :currentStatus")
+    int finish(@Param("id") Long id,
+               @Param("currentStatus") AttemptStatus currentStatus,
+               @Param("status") AttemptStatus status,
+               @Param("submittedAt") LocalDateTime submittedAt);
+}
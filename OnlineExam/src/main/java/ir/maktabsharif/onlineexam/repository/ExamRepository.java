@@ -1,9 +1,12 @@
 package ir.maktabsharif.onlineexam.repository;
+import ir.maktabsharif.onlineexam.model.dto.ExamRow;
 import ir.maktabsharif.onlineexam.model.entity.Course;
 import ir.maktabsharif.onlineexam.model.entity.Exam;
 import ir.maktabsharif.onlineexam.model.entity.User;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -17,7 +20,9 @@ public interface ExamRepository extends JpaRepository<Exam, Long> {
     @Override
     Optional<Exam> findById(Long id);
     
-    @EntityGraph(attributePaths = {"course", "teacher"})
-    List<Exam> findByCourseOrderByIdDesc(Course course);
+    @Query("SELECT new ir.maktabsharif.onlineexam.model.dto.ExamRow(" +
+           "e.id, e.title, e.description, e.durationMinutes, t.id, t.firstName, t.lastName) " +
+           "FROM Exam e JOIN e.teacher t WHERE e.course.id = :courseId ORDER BY e.id DESC")
+    List<ExamRow> findRowsByCourseId(@Param("courseId") Long courseId);
 }
 
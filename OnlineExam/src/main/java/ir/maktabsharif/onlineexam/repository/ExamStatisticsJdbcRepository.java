@@ -0,0 +1,158 @@
+package ir.maktabsharif.onlineexam.repository;
+import ir.maktabsharif.onlineexam.grading.StatisticsDelta;
+import ir.maktabsharif.onlineexam.model.entity.ExamStatistics;
+import ir.maktabsharif.onlineexam.model.enums.QuestionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains the statistics tables. {@link #apply} adds a delta with upserts that only
+ * ever increment, so concurrent grading chunks of the same exam can apply theirs in
+ * any order. {@link #rebuild} throws the totals away and recomputes them from
+ * {@code exam_attempts} and {@code attempt_answers}.
+ *
+ * <p>Grading transactions and rebuilds of one exam are serialized across nodes with a
+ * transaction-scoped Postgres advisory lock keyed by the exam id: grading takes it
+ * shared through {@link #lockForGrading}, so chunks still run side by side, and a
+ * rebuild takes it exclusive. A rebuild therefore waits for the chunks in flight and
+ * sees either all or none of a chunk's grades, and later chunks wait for the rebuild.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExamStatisticsJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes the shared grading lock of an exam until the surrounding transaction ends.
+     * Must run before the grades it protects are written.
+     */
+    public void lockForGrading(Long examId) {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock_shared(:examId)",
+                new MapSqlParameterSource("examId", examId), PreparedStatement::execute);
+    }
+
+    public void apply(StatisticsDelta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        Long examId = delta.getExamId();
+        jdbcTemplate.update(
+                "INSERT INTO exam_statistics (id, exam_id, attempt_count, score_sum, score_sum_squares, " +
+                "min_score, max_score, updated_at) " +
+                "VALUES (nextval('db_seq'), :examId, :attemptCount, :scoreSum, :scoreSumSquares, " +
+                ":minScore, :maxScore, :updatedAt) " +
+                "ON CONFLICT (exam_id) DO UPDATE SET " +
+                "attempt_count = exam_statistics.attempt_count + EXCLUDED.attempt_count, " +
+                "score_sum = exam_statistics.score_sum + EXCLUDED.score_sum, " +
+                "score_sum_squares = exam_statistics.score_sum_squares + EXCLUDED.score_sum_squares, " +
+                "min_score = LEAST(exam_statistics.min_score, EXCLUDED.min_score), " +
+                "max_score = GREATEST(exam_statistics.max_score, EXCLUDED.max_score), " +
+                "updated_at = EXCLUDED.updated_at",
+                new MapSqlParameterSource()
+                        .addValue("examId", examId)
+                        .addValue("attemptCount", delta.getAttemptCount())
+                        .addValue("scoreSum", delta.getScoreSum())
+                        .addValue("scoreSumSquares", delta.getScoreSumSquares())
+                        .addValue("minScore", delta.getMinScore())
+                        .addValue("maxScore", delta.getMaxScore())
+                        .addValue("updatedAt", Timestamp.valueOf(LocalDateTime.now())));
+
+        List<MapSqlParameterSource> buckets = new ArrayList<>();
+        long[] bucketCounts = delta.getBuckets();
+        for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+            if (bucketCounts[bucket] > 0) {
+                buckets.add(new MapSqlParameterSource()
+                        .addValue("examId", examId)
+                        .addValue("bucket", bucket)
+                        .addValue("attemptCount", bucketCounts[bucket]));
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO exam_score_buckets (id, exam_id, bucket, attempt_count) " +
+                "VALUES (nextval('db_seq'), :examId, :bucket, :attemptCount) " +
+                "ON CONFLICT (exam_id, bucket) DO UPDATE " +
+                "SET attempt_count = exam_score_buckets.attempt_count + EXCLUDED.attempt_count",
+                buckets.toArray(MapSqlParameterSource[]::new));
+
+        List<MapSqlParameterSource> questions = new ArrayList<>();
+        long[] correctCounts = delta.getCorrectCounts();
+        for (int position = 0; position < correctCounts.length; position++) {
+            if (correctCounts[position] > 0) {
+                questions.add(new MapSqlParameterSource()
+                        .addValue("examId", examId)
+                        .addValue("questionId", delta.getAnswerKey().questionIdAt(position))
+                        .addValue("correctCount", correctCounts[position]));
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO exam_question_statistics (id, exam_id, question_id, correct_count) " +
+                "VALUES (nextval('db_seq'), :examId, :questionId, :correctCount) " +
+                "ON CONFLICT (exam_id, question_id) DO UPDATE " +
+                "SET correct_count = exam_question_statistics.correct_count + EXCLUDED.correct_count",
+                questions.toArray(MapSqlParameterSource[]::new));
+    }
+
+    /**
+     * Replaces the statistics of an exam with totals recomputed from its graded
+     * attempts. {@code maxScore} must be the exam's current multiple-choice total, the
+     * same value grading uses to place scores in buckets. Waits for grading chunks
+     * of the exam that are in flight on any node.
+     */
+    @Transactional
+    public void rebuild(Long examId, double maxScore) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("examId", examId)
+                .addValue("maxScore", maxScore)
+                .addValue("buckets", ExamStatistics.BUCKETS)
+                .addValue("objectiveType", QuestionType.MULTIPLE_CHOICE.ordinal())
+                .addValue("updatedAt", Timestamp.valueOf(LocalDateTime.now()));
+
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(:examId)", params, PreparedStatement::execute);
+        jdbcTemplate.update("DELETE FROM exam_question_statistics WHERE exam_id = :examId", params);
+        jdbcTemplate.update("DELETE FROM exam_score_buckets WHERE exam_id = :examId", params);
+        jdbcTemplate.update("DELETE FROM exam_statistics WHERE exam_id = :examId", params);
+
+        jdbcTemplate.update(
+                "INSERT INTO exam_statistics (id, exam_id, attempt_count, score_sum, score_sum_squares, " +
+                "min_score, max_score, updated_at) " +
+                "SELECT nextval('db_seq'), :examId, t.attempt_count, t.score_sum, t.score_sum_squares, " +
+                "t.min_score, t.max_score, :updatedAt " +
+                "FROM (SELECT COUNT(*) AS attempt_count, SUM(score) AS score_sum, " +
+                "SUM(score * score) AS score_sum_squares, MIN(score) AS min_score, MAX(score) AS max_score " +
+                "FROM exam_attempts WHERE exam_id = :examId AND graded_at IS NOT NULL) t " +
+                "WHERE t.attempt_count > 0",
+                params);
+
+        jdbcTemplate.update(
+                "INSERT INTO exam_score_buckets (id, exam_id, bucket, attempt_count) " +
+                "SELECT nextval('db_seq'), :examId, b.bucket, b.attempt_count " +
+                "FROM (SELECT CASE WHEN :maxScore > 0 " +
+                "THEN GREATEST(0, LEAST(:buckets - 1, CAST(FLOOR(score * :buckets / :maxScore) AS INTEGER))) " +
+                "ELSE 0 END AS bucket, COUNT(*) AS attempt_count " +
+                "FROM exam_attempts WHERE exam_id = :examId AND graded_at IS NOT NULL " +
+                "GROUP BY 1) b",
+                params);
+
+        jdbcTemplate.update(
+                "INSERT INTO exam_question_statistics (id, exam_id, question_id, correct_count) " +
+                "SELECT nextval('db_seq'), :examId, c.question_id, c.correct_count " +
+                "FROM (SELECT q.id AS question_id, COUNT(*) AS correct_count " +
+                "FROM exam_attempts a " +
+                "JOIN attempt_answers aa ON aa.attempt_id = a.id " +
+                "JOIN questions q ON q.id = aa.question_id AND q.type = :objectiveType " +
+                "WHERE a.exam_id = :examId AND a.graded_at IS NOT NULL " +
+                "AND CASE WHEN TRIM(aa.answer) ~ '^[0-9]{1,9}$' THEN CAST(TRIM(aa.answer) AS INTEGER) END " +
+                "= q.correct_option " +
+                "GROUP BY q.id) c",
+                params);
+    }
+}
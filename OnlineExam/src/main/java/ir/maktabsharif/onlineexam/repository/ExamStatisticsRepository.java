@@ -0,0 +1,28 @@
+package ir.maktabsharif.onlineexam.repository;
+import ir.maktabsharif.onlineexam.model.dto.CourseStatistics;
+import ir.maktabsharif.onlineexam.model.entity.ExamQuestionStatistics;
+import ir.maktabsharif.onlineexam.model.entity.ExamScoreBucket;
+import ir.maktabsharif.onlineexam.model.entity.ExamStatistics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExamStatisticsRepository extends JpaRepository<ExamStatistics, Long> {
+    @Query("SELECT s FROM ExamStatistics s WHERE s.exam.id = :examId")
+    Optional<ExamStatistics> findByExamId(@Param("examId") Long examId);
+
+    @Query("SELECT b FROM ExamScoreBucket b WHERE b.exam.id = :examId ORDER BY b.bucket")
+    List<ExamScoreBucket> findBuckets(@Param("examId") Long examId);
+
+    @Query("SELECT s FROM ExamQuestionStatistics s WHERE s.exam.id = :examId")
+    List<ExamQuestionStatistics> findQuestionStatistics(@Param("examId") Long examId);
+
+    @Query("SELECT new ir.maktabsharif.onlineexam.model.dto.CourseStatistics(" +
+           "COALESCE(SUM(s.attemptCount), 0L), COALESCE(SUM(s.scoreSum), 0.0), COALESCE(SUM(s.scoreSumSquares), 0.0)) " +
+           "FROM ExamStatistics s WHERE s.exam.course.id = :courseId")
+    CourseStatistics findCourseStatistics(@Param("courseId") Long courseId);
+}
@@ -0,0 +1,59 @@
+package ir.maktabsharif.onlineexam.repository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Forward-only cursors for exports. Rows are handed to the caller one at a time as the
+ * driver fetches them in pages of {@code fetchSize}; the read-only transaction keeps
+ * PostgreSQL from materialising the whole result set on the client.
+ *
+ * <p>The trade-off is that the transaction, and with it a pooled connection, stays open
+ * for as long as the client takes to download the file, since rows are only fetched as
+ * fast as they can be written. That is bounded three ways: {@code ExportServiceImpl}
+ * caps the number of concurrent exports ({@code app.export.max-concurrent}), the
+ * transaction timeout ({@code app.export.timeout-seconds}) becomes the statement's query
+ * timeout, and {@code spring.mvc.async.request-timeout} ends the response of a client
+ * that stalls, after which the next write fails and the cursor is closed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExportJdbcRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true, timeoutString = "${app.export.timeout-seconds:300}")
+    public void streamParticipants(Long courseId, RowCallbackHandler handler) {
+        stream("SELECT u.username, u.first_name, u.last_name, u.email " +
+               "FROM course_students cs JOIN users u ON u.id = cs.student_id " +
+               "WHERE cs.course_id = ? " +
+               "ORDER BY u.last_name, u.first_name",
+                courseId, handler);
+    }
+
+    @Transactional(readOnly = true, timeoutString = "${app.export.timeout-seconds:300}")
+    public void streamExamResults(Long examId, RowCallbackHandler handler) {
+        stream("SELECT u.username, u.first_name, u.last_name, u.email, " +
+               "a.status, a.started_at, a.submitted_at, a.score, a.graded_at " +
+               "FROM exam_attempts a JOIN users u ON u.id = a.student_id " +
+               "WHERE a.exam_id = ? " +
+               "ORDER BY u.last_name, u.first_name",
+                examId, handler);
+    }
+
+    private void stream(String sql, Long id, RowCallbackHandler handler) {
+        jdbcTemplate.getJdbcTemplate().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setLong(1, id);
+            return statement;
+        }, handler);
+    }
+}
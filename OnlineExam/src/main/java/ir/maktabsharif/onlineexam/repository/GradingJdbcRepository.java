@@ -0,0 +1,79 @@
+package ir.maktabsharif.onlineexam.repository;
+import ir.maktabsharif.onlineexam.grading.GradedAttempt;
+import ir.maktabsharif.onlineexam.model.enums.AttemptStatus;
+import ir.maktabsharif.onlineexam.model.enums.QuestionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads finished attempts for grading through a forward-only cursor and writes the
+ * scores back in batches. The read runs in a read-only transaction because the
+ * PostgreSQL driver only honours the fetch size when autocommit is off; without it
+ * the whole result set would be loaded at once.
+ */
+@Repository
+@RequiredArgsConstructor
+public class GradingJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Streams {@code (attempt_id, question_id, answer)} rows of the ungraded, finished
+     * attempts of an exam, ordered by attempt. Only answers to multiple-choice
+     * questions are joined; an attempt without any is still returned once with a
+     * {@code null} question id.
+     */
+    @Transactional(readOnly = true)
+    public void streamUngradedAnswers(Long examId, int fetchSize, AnswerRowHandler handler) {
+        jdbcTemplate.getJdbcTemplate().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT a.id AS attempt_id, aa.question_id, aa.answer " +
+                    "FROM exam_attempts a " +
+                    "LEFT JOIN attempt_answers aa ON aa.attempt_id = a.id AND EXISTS (" +
+                    "SELECT 1 FROM questions q WHERE q.id = aa.question_id AND q.type = ?) " +
+                    "WHERE a.exam_id = ? AND a.status IN (?, ?) AND a.graded_at IS NULL " +
+                    "ORDER BY a.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setInt(1, QuestionType.MULTIPLE_CHOICE.ordinal());
+            statement.setLong(2, examId);
+            statement.setInt(3, AttemptStatus.SUBMITTED.ordinal());
+            statement.setInt(4, AttemptStatus.EXPIRED.ordinal());
+            return statement;
+        }, rs -> {
+            long questionId = rs.getLong("question_id");
+            handler.handle(rs.getLong("attempt_id"), rs.wasNull() ? null : questionId, rs.getString("answer"));
+        });
+    }
+
+    /**
+     * Writes scores of graded attempts. Attempts graded in the meantime by another
+     * run keep their first score.
+     */
+    public int[] updateScores(List<GradedAttempt> results, LocalDateTime gradedAt) {
+        Timestamp timestamp = Timestamp.valueOf(gradedAt);
+        MapSqlParameterSource[] batch = results.stream()
+                .map(result -> new MapSqlParameterSource()
+                        .addValue("id", result.getAttemptId())
+                        .addValue("score", result.getScore())
+                        .addValue("gradedAt", timestamp))
+                .toArray(MapSqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate(
+                "UPDATE exam_attempts SET score = :score, graded_at = :gradedAt " +
+                "WHERE id = :id AND graded_at IS NULL",
+                batch);
+    }
+
+    @FunctionalInterface
+    public interface AnswerRowHandler {
+        void handle(Long attemptId, Long questionId, String answer);
+    }
+}
@@ -0,0 +1,89 @@
+package ir.maktabsharif.onlineexam.repository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Set-based inserts that build the exam-day data set of the {@code loadtest} profile.
+ * Every row is generated inside Postgres with {@code generate_series}, so seeding
+ * thousands of users takes one statement per table instead of one per entity.
+ */
+@Repository
+@Profile("loadtest")
+@RequiredArgsConstructor
+public class LoadTestJdbcRepository {
+
+    public static final String TEACHER_PREFIX = "lt-teacher-";
+    public static final String STUDENT_PREFIX = "lt-student-";
+    public static final String COURSE_PREFIX = "LT-";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public boolean isSeeded() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE username = :username",
+                new MapSqlParameterSource("username", TEACHER_PREFIX + 1), Integer.class);
+        return count != null && count > 0;
+    }
+
+    @Transactional
+    public void seed(int teachers, int students, int courses, int examsPerCourse,
+                     String passwordHash, int approvedStatus) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("teachers", teachers)
+                .addValue("students", students)
+                .addValue("courses", courses)
+                .addValue("exams", examsPerCourse)
+                .addValue("teacherPrefix", TEACHER_PREFIX)
+                .addValue("studentPrefix", STUDENT_PREFIX)
+                .addValue("coursePrefix", COURSE_PREFIX);
+
+        insertUsers(TEACHER_PREFIX, teachers, "ROLE_TEACHER", passwordHash, approvedStatus);
+        insertUsers(STUDENT_PREFIX, students, "ROLE_STUDENT", passwordHash, approvedStatus);
+
+        jdbcTemplate.update(
+                "INSERT INTO courses (id, course_code, title, start_date, end_date, teacher_id) " +
+                "SELECT nextval('db_seq'), :coursePrefix || n, 'Load test course ' || n, " +
+                "current_date - 30, current_date + 30, t.id " +
+                "FROM generate_series(1, :courses) n " +
+                "JOIN users t ON t.username = :teacherPrefix || ((n - 1) % :teachers + 1)",
+                params);
+
+        jdbcTemplate.update(
+                "INSERT INTO course_students (course_id, student_id) " +
+                "SELECT c.id, s.id FROM generate_series(1, :students) n " +
+                "JOIN users s ON s.username = :studentPrefix || n " +
+                "JOIN courses c ON c.course_code = :coursePrefix || ((n - 1) % :courses + 1)",
+                params);
+
+        jdbcTemplate.update(
+                "INSERT INTO exams (id, title, description, duration_minutes, course_id, teacher_id) " +
+                "SELECT nextval('db_seq'), 'Exam ' || e, 'Load test exam', 60, c.id, c.teacher_id " +
+                "FROM courses c CROSS JOIN generate_series(1, :exams) e " +
+                "WHERE c.course_code LIKE :coursePrefix || '%'",
+                params);
+    }
+
+    private void insertUsers(String prefix, int count, String roleName, String passwordHash, int status) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("prefix", prefix)
+                .addValue("count", count)
+                .addValue("roleName", roleName)
+                .addValue("password", passwordHash)
+                .addValue("status", status);
+        jdbcTemplate.update(
+                "INSERT INTO users (id, username, password, first_name, last_name, email, status) " +
+                "SELECT nextval('db_seq'), :prefix || n, :password, 'Load', 'Test ' || n, " +
+                ":prefix || n || '@loadtest.local', :status " +
+                "FROM generate_series(1, :count) n",
+                params);
+        jdbcTemplate.update(
+                "INSERT INTO user_roles (user_id, role_id) " +
+                "SELECT u.id, r.id FROM users u JOIN roles r ON r.name = :roleName " +
+                "WHERE u.username LIKE :prefix || '%'",
+                params);
+    }
+}
@@ -0,0 +1,19 @@
+package ir.maktabsharif.onlineexam.repository;
+import ir.maktabsharif.onlineexam.model.entity.MailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    @Query(value = "SELECT * FROM mail_outbox " +
+           "WHERE status = :status AND next_attempt_at <= now() " +
+           "ORDER BY id " +
+           "LIMIT :limit " +
+           "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<MailOutbox> claimBatch(@Param("status") String status,
+                                @Param("limit") int limit);
+}
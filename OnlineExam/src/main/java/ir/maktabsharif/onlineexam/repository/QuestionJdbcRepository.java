@@ -0,0 +1,50 @@
+package ir.maktabsharif.onlineexam.repository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.maktabsharif.onlineexam.model.dto.QuestionInput;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch inserts for question imports, so large imports are written a chunk at a
+ * time instead of being collected as entities in the persistence context.
+ */
+@Repository
+@RequiredArgsConstructor
+public class QuestionJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public void insertQuestions(Long examId, List<QuestionInput> questions, int firstSortOrder) {
+        List<MapSqlParameterSource> batch = new ArrayList<>(questions.size());
+        int sortOrder = firstSortOrder;
+        for (QuestionInput question : questions) {
+            batch.add(new MapSqlParameterSource()
+                    .addValue("examId", examId)
+                    .addValue("type", question.getType().ordinal())
+                    .addValue("text", question.getText())
+                    .addValue("options", toJson(question.getOptions()))
+                    .addValue("correctOption", question.getCorrectOption())
+                    .addValue("score", question.getScore())
+                    .addValue("sortOrder", sortOrder++));
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO questions (id, exam_id, type, text, options, correct_option, score, sort_order) " +
+                "VALUES (nextval('db_seq'), :examId, :type, :text, CAST(:options AS jsonb), " +
+                ":correctOption, :score, :sortOrder)",
+                batch.toArray(MapSqlParameterSource[]::new));
+    }
+
+    private String toJson(List<String> options) {
+        try {
+            return objectMapper.writeValueAsString(options);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
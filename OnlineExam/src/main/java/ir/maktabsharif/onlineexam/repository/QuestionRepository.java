@@ -0,0 +1,21 @@
+package ir.maktabsharif.onlineexam.repository;
+import ir.maktabsharif.onlineexam.model.entity.Question;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface QuestionRepository extends JpaRepository<Question, Long> {
+    @Query("SELECT q FROM Question q WHERE q.exam.id = :examId ORDER BY q.sortOrder, q.id")
+    List<Question> findByExamId(@Param("examId") Long examId);
+
+    @Query("SELECT COALESCE(MAX(q.sortOrder), 0) FROM Question q WHERE q.exam.id = :examId")
+    int findMaxSortOrder(@Param("examId") Long examId);
+
+    @Modifying
+    @Query("DELETE FROM Question q WHERE q.exam.id = :examId")
+    int deleteByExamId(@Param("examId") Long examId);
+}
@@ -1,8 +1,14 @@
 package ir.maktabsharif.onlineexam.repository;
 import ir.maktabsharif.onlineexam.model.entity.Role;
 import ir.maktabsharif.onlineexam.model.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -10,9 +16,23 @@ import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    /** Query cache region of {@link #findByUsername}, evicted after bulk user writes. */
+    String USERNAME_QUERY_REGION = "users-by-username";
+
+    @EntityGraph(attributePaths = "roles")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = USERNAME_QUERY_REGION)
+    })
     Optional<User> findByUsername(String username);
+
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByEmail(String email);
 
+    @EntityGraph(attributePaths = "roles")
+    @Override
+    Optional<User> findById(Long id);
+
     @Query(value = "SELECT DISTINCT u.* FROM users u " +
            "LEFT JOIN user_roles ur ON u.id = ur.user_id " +
            "LEFT JOIN roles r ON ur.role_id = r.id " +
@@ -26,6 +46,40 @@ public interface UserRepository extends JpaRepository<User, Long> {
                           @Param("lastName") String lastName,
                           @Param("status") Integer status);
     
+    String SEARCH_TEXT = "(u.first_name || ' ' || u.last_name || ' ' || u.username || ' ' || u.email)";
+
+    String SEARCH_FILTER = "WHERE (:roleName IS NULL OR :roleName = '' OR EXISTS (" +
+           "    SELECT 1 FROM user_roles ur JOIN roles r ON ur.role_id = r.id " +
+           "    WHERE ur.user_id = u.id AND r.name = :roleName)) " +
+           "AND (:firstName IS NULL OR :firstName = '' OR u.first_name ILIKE CONCAT('%', :firstName, '%')) " +
+           "AND (:lastName IS NULL OR :lastName = '' OR u.last_name ILIKE CONCAT('%', :lastName, '%')) " +
+           "AND (:status IS NULL OR u.status = :status) " +
+           "AND (:query = '' OR " + SEARCH_TEXT + " ILIKE CONCAT('%', :query, '%') " +
+           "    OR :query <% " + SEARCH_TEXT + ") ";
+
+    @Query(value = "SELECT u.* FROM users u " +
+           SEARCH_FILTER +
+           "AND u.id > :afterId " +
+           "ORDER BY CASE WHEN :query = '' THEN 0 ELSE word_similarity(:query, " + SEARCH_TEXT + ") END DESC, u.id " +
+           "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<User> searchUsersPage(@Param("roleName") String roleName,
+                               @Param("firstName") String firstName,
+                               @Param("lastName") String lastName,
+                               @Param("status") Integer status,
+                               @Param("query") String query,
+                               @Param("afterId") long afterId,
+                               @Param("offset") int offset,
+                               @Param("limit") int limit);
+
+    @Query(value = "SELECT COUNT(*) FROM users u " + SEARCH_FILTER, nativeQuery = true)
+    long countSearchUsers(@Param("roleName") String roleName,
+                          @Param("firstName") String firstName,
+                          @Param("lastName") String lastName,
+                          @Param("status") Integer status,
+                          @Param("query") String query);
+
+    Slice<User> findByIdGreaterThan(Long afterId, Pageable pageable);
+
     List<User> findByRolesContaining(Role role);
 }
 
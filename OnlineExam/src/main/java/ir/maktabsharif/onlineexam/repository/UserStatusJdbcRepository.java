@@ -0,0 +1,63 @@
+package ir.maktabsharif.onlineexam.repository;
+import ir.maktabsharif.onlineexam.model.entity.Role;
+import ir.maktabsharif.onlineexam.model.entity.User;
+import ir.maktabsharif.onlineexam.model.enums.UserStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk status changes as one set-based {@code UPDATE ... RETURNING}, so approving or
+ * rejecting thousands of pending users neither loads nor locks them as entities
+ * first. The statement bypasses the persistence context; callers evict the changed
+ * users from the second-level cache.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserStatusJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Moves the users with status {@code currentStatus} that match the user-list filter
+     * to {@code newStatus} and returns them with just the fields a notification needs:
+     * id, username, names, email and role names. Concurrent calls cannot both change
+     * the same user, because the second re-checks the status once the first commits.
+     */
+    public List<User> updateStatus(String roleName, String firstName, String lastName, String query,
+                                   UserStatus currentStatus, UserStatus newStatus, String rejectionReason) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("roleName", roleName, Types.VARCHAR)
+                .addValue("firstName", firstName, Types.VARCHAR)
+                .addValue("lastName", lastName, Types.VARCHAR)
+                .addValue("status", currentStatus.ordinal())
+                .addValue("query", query, Types.VARCHAR)
+                .addValue("newStatus", newStatus.ordinal())
+                .addValue("rejectionReason", rejectionReason, Types.VARCHAR);
+        return jdbcTemplate.query(
+                "UPDATE users u SET status = :newStatus, rejection_reason = :rejectionReason " +
+                UserRepository.SEARCH_FILTER +
+                "RETURNING u.id, u.username, u.first_name, u.last_name, u.email, " +
+                "ARRAY(SELECT r.name FROM user_roles ur JOIN roles r ON ur.role_id = r.id " +
+                "      WHERE ur.user_id = u.id) AS role_names",
+                params,
+                (rs, rowNum) -> {
+                    User user = User.builder()
+                            .username(rs.getString("username"))
+                            .firstName(rs.getString("first_name"))
+                            .lastName(rs.getString("last_name"))
+                            .email(rs.getString("email"))
+                            .roles(Arrays.stream((String[]) rs.getArray("role_names").getArray())
+                                    .map(name -> Role.builder().name(name).build())
+                                    .collect(Collectors.toSet()))
+                            .build();
+                    user.setId(rs.getLong("id"));
+                    return user;
+                });
+    }
+}
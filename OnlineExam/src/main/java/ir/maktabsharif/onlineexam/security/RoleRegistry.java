@@ -0,0 +1,39 @@
+package ir.maktabsharif.onlineexam.security;
+import ir.maktabsharif.onlineexam.model.entity.Role;
+import ir.maktabsharif.onlineexam.repository.RoleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory view of the roles table. Roles are fixed at startup by
+ * {@link ir.maktabsharif.onlineexam.config.DataInitializer}, so lookups by name
+ * never need to go to the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+
+    private volatile Map<String, Role> rolesByName = Map.of();
+
+    public void load(Collection<Role> roles) {
+        rolesByName = roles.stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity()));
+        log.info("Role registry loaded with {} roles", rolesByName.size());
+    }
+
+    public Optional<Role> find(String name) {
+        if (rolesByName.isEmpty()) {
+            load(roleRepository.findAll());
+        }
+        return Optional.ofNullable(rolesByName.get(name));
+    }
+}
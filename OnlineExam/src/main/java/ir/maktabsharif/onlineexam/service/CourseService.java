@@ -1,6 +1,9 @@
 package ir.maktabsharif.onlineexam.service;
+import ir.maktabsharif.onlineexam.model.dto.BulkEnrollmentResult;
+import ir.maktabsharif.onlineexam.model.dto.CourseSummary;
+import ir.maktabsharif.onlineexam.model.dto.ParticipantRow;
 import ir.maktabsharif.onlineexam.model.entity.Course;
-import ir.maktabsharif.onlineexam.model.entity.User;
+import java.io.Reader;
 import java.util.List;
 
 public interface CourseService {
@@ -8,10 +11,15 @@ public interface CourseService {
     Course updateCourse(Long courseId, Course course);
     void deleteCourse(Long courseId);
     Course findById(Long id);
-    List<Course> getAllCourses();
+    List<CourseSummary> getCourseSummaries();
+    List<CourseSummary> getCourseSummariesByTeacher(Long teacherId);
+    List<CourseSummary> getCourseSummariesByStudent(Long studentId);
+    boolean isStudentEnrolled(Long courseId, Long studentId);
+    CourseSummary getCourseSummary(Long id);
     Course assignTeacherToCourse(Long courseId, Long teacherId);
     Course addStudentToCourse(Long courseId, Long studentId);
+    BulkEnrollmentResult enrollStudents(Long courseId, Reader source);
     void removeStudentFromCourse(Long courseId, Long studentId);
-    List<User> getCourseParticipants(Long courseId);
+    List<ParticipantRow> getCourseStudents(Long courseId);
 }
 
@@ -0,0 +1,14 @@
+package ir.maktabsharif.onlineexam.service;
+import ir.maktabsharif.onlineexam.model.dto.ExamSession;
+import ir.maktabsharif.onlineexam.model.enums.AttemptStatus;
+import java.util.Map;
+
+public interface ExamAttemptService {
+    ExamSession startAttempt(Long examId, Long studentId);
+    ExamSession getSession(Long attemptId, Long studentId);
+    Map<Long, String> getAnswers(Long attemptId);
+    long saveAnswer(Long attemptId, String username, Long questionId, String answer);
+    void submitAttempt(Long attemptId, Long studentId);
+    void finishAttempt(Long attemptId, AttemptStatus status);
+    Map<Long, AttemptStatus> getAttemptStatuses(Long studentId, Long courseId);
+}
@@ -1,7 +1,6 @@
 package ir.maktabsharif.onlineexam.service;
-import ir.maktabsharif.onlineexam.model.entity.Course;
+import ir.maktabsharif.onlineexam.model.dto.ExamRow;
 import ir.maktabsharif.onlineexam.model.entity.Exam;
-import ir.maktabsharif.onlineexam.model.entity.User;
 import java.util.List;
 
 public interface ExamService {
@@ -9,7 +8,7 @@ public interface ExamService {
     Exam updateExam(Long examId, Exam exam);
     void deleteExam(Long examId);
     Exam findById(Long id);
-    List<Exam> getExamsByCourse(Course course);
+    List<ExamRow> getExamRowsByCourse(Long courseId);
     boolean isExamOwner(Long examId, Long teacherId);
 }
 
@@ -0,0 +1,10 @@
+package ir.maktabsharif.onlineexam.service;
+import ir.maktabsharif.onlineexam.model.dto.CourseStatistics;
+import ir.maktabsharif.onlineexam.model.dto.ExamStatisticsView;
+
+public interface ExamStatisticsService {
+    ExamStatisticsView getExamStatistics(Long examId);
+    CourseStatistics getCourseStatistics(Long courseId);
+    void rebuildExamStatistics(Long examId);
+    boolean rebuildAllStatistics();
+}
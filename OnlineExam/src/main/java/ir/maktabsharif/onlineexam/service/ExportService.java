@@ -0,0 +1,10 @@
+package ir.maktabsharif.onlineexam.service;
+import ir.maktabsharif.onlineexam.export.ExportFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+public interface ExportService {
+    void exportParticipants(Long courseId, ExportFormat format, Locale locale, OutputStream output) throws IOException;
+    void exportExamResults(Long examId, ExportFormat format, Locale locale, OutputStream output) throws IOException;
+}
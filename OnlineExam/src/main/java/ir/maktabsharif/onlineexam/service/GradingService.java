@@ -0,0 +1,8 @@
+package ir.maktabsharif.onlineexam.service;
+import ir.maktabsharif.onlineexam.grading.GradingStatus;
+import java.util.Map;
+
+public interface GradingService {
+    GradingStatus startGrading(Long examId);
+    Map<Long, GradingStatus> getGradingStatuses(Long courseId);
+}
@@ -2,7 +2,10 @@ package ir.maktabsharif.onlineexam.service;
 
 public interface PasswordResetService {
     String generateAndStoreResetCode(String email);
-    boolean validateResetCode(String email, String code);
-    void deleteResetCode(String email);
-}
 
+    /**
+     * Checks the code issued to the email and, when it matches, deletes it so it cannot
+     * be used again. Returns false for a wrong, expired or already used code.
+     */
+    boolean consumeResetCode(String email, String code);
+}
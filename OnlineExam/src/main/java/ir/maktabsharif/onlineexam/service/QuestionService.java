@@ -0,0 +1,13 @@
+package ir.maktabsharif.onlineexam.service;
+import ir.maktabsharif.onlineexam.model.dto.ExamQuestions;
+import ir.maktabsharif.onlineexam.model.dto.QuestionImportResult;
+import ir.maktabsharif.onlineexam.model.dto.QuestionInput;
+import java.io.Reader;
+
+public interface QuestionService {
+    ExamQuestions getExamQuestions(Long examId);
+    void addQuestion(Long examId, QuestionInput question);
+    void deleteQuestion(Long examId, Long questionId);
+    QuestionImportResult importCsv(Long examId, Reader source);
+    QuestionImportResult importJson(Long examId, Reader source);
+}
@@ -1,4 +1,5 @@
 package ir.maktabsharif.onlineexam.service;
+import ir.maktabsharif.onlineexam.model.dto.UserPage;
 import ir.maktabsharif.onlineexam.model.entity.User;
 import ir.maktabsharif.onlineexam.model.enums.UserStatus;
 import ir.maktabsharif.onlineexam.model.helper.UserUpdateChanges;
@@ -7,15 +8,19 @@ import java.util.List;
 public interface UserService {
     User register(User user, String roleName);
     User approveUser(Long userId);
+    int approveUsers(String roleName, String firstName, String lastName, String query);
     User rejectUser(Long userId, String rejectionReason);
+    int rejectUsers(String roleName, String firstName, String lastName, String query, String rejectionReason);
     User updateUser(Long userId, User user);
-    UserUpdateChanges updateUserWithChanges(Long userId, User updatedUser);
+    UserUpdateChanges updateUserWithChanges(Long userId, User updatedUser, UserUpdateChanges changes);
     User changeUserRole(Long userId, String roleName);
     List<User> searchUsers(String roleName, String firstName, String lastName, UserStatus status);
     List<User> getAllUsers();
+    UserPage searchUsersPage(String roleName, String firstName, String lastName, UserStatus status,
+                             String query, int page, int size, Long afterId, boolean includeCount);
     User findById(Long id);
     User findByUsername(String username);
-    void deleteUser(Long userId, Long currentUserId);
+    void deleteUser(Long userId, Long currentUserId, String deletionReason);
     User changeUserRoles(Long userId, List<String> roleNames);
     User addRoleToExistingUser(String usernameOrEmail, String password, String roleName);
 
@@ -1,9 +1,15 @@
 package ir.maktabsharif.onlineexam.service.impl;
+import ir.maktabsharif.onlineexam.cache.SecondLevelCache;
+import ir.maktabsharif.onlineexam.model.dto.BulkEnrollmentResult;
+import ir.maktabsharif.onlineexam.model.dto.CourseSummary;
+import ir.maktabsharif.onlineexam.model.dto.ParticipantRow;
 import ir.maktabsharif.onlineexam.model.entity.Course;
-import ir.maktabsharif.onlineexam.model.entity.Role;
 import ir.maktabsharif.onlineexam.model.entity.User;
+import ir.maktabsharif.onlineexam.model.enums.UserStatus;
+import ir.maktabsharif.onlineexam.repository.CourseEnrollmentJdbcRepository;
+import ir.maktabsharif.onlineexam.repository.CourseEnrollmentJdbcRepository.Candidate;
+import ir.maktabsharif.onlineexam.repository.CourseEnrollmentJdbcRepository.CourseRef;
 import ir.maktabsharif.onlineexam.repository.CourseRepository;
-import ir.maktabsharif.onlineexam.repository.RoleRepository;
 import ir.maktabsharif.onlineexam.repository.UserRepository;
 import ir.maktabsharif.onlineexam.service.CourseService;
 import lombok.RequiredArgsConstructor;
@@ -11,18 +17,30 @@ import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class CourseServiceImpl implements CourseService {
 
+    private static final int ENROLLMENT_BATCH_SIZE = 500;
+    private static final Set<String> ENROLLMENT_HEADERS = Set.of("username", "email", "identifier");
+
     private final CourseRepository courseRepository;
+    private final CourseEnrollmentJdbcRepository courseEnrollmentJdbcRepository;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
     private final MessageSource messageSource;
+    private final SecondLevelCache secondLevelCache;
 
     @Override
     @Transactional
@@ -74,8 +92,33 @@ public class CourseServiceImpl implements CourseService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Course> getAllCourses() {
-        return courseRepository.findAll();
+    public List<CourseSummary> getCourseSummaries() {
+        return courseRepository.findAllSummaries();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CourseSummary> getCourseSummariesByTeacher(Long teacherId) {
+        return courseRepository.findSummariesByTeacherId(teacherId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CourseSummary> getCourseSummariesByStudent(Long studentId) {
+        return courseRepository.findSummariesByStudentId(studentId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isStudentEnrolled(Long courseId, Long studentId) {
+        return courseRepository.isStudentEnrolled(courseId, studentId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CourseSummary getCourseSummary(Long id) {
+        return courseRepository.findSummaryById(id)
+                .orElseThrow(() -> new RuntimeException("Course not found"));
     }
 
     @Override
@@ -94,13 +137,7 @@ public class CourseServiceImpl implements CourseService {
                     return new RuntimeException(message);
                 });
 
-        Role teacherRole = roleRepository.findByName("ROLE_TEACHER")
-                .orElseThrow(() -> {
-                    String message = messageSource.getMessage("error.role.teacher.not.found", null, locale);
-                    return new RuntimeException(message);
-                });
-
-        if (!teacher.getRoles().contains(teacherRole)) {
+        if (!teacher.hasRole("ROLE_TEACHER")) {
             String message = messageSource.getMessage("courses.assign.teacher.error.not.teacher", null, locale);
             throw new RuntimeException(message);
         }
@@ -131,13 +168,7 @@ public class CourseServiceImpl implements CourseService {
                     return new RuntimeException(message);
                 });
 
-        Role studentRole = roleRepository.findByName("ROLE_STUDENT")
-                .orElseThrow(() -> {
-                    String message = messageSource.getMessage("error.role.student.not.found", null, locale);
-                    return new RuntimeException(message);
-                });
-
-        if (!student.getRoles().contains(studentRole)) {
+        if (!student.hasRole("ROLE_STUDENT")) {
             String message = messageSource.getMessage("courses.add.student.error.not.student", null, locale);
             throw new RuntimeException(message);
         }
@@ -155,6 +186,110 @@ public class CourseServiceImpl implements CourseService {
         return courseRepository.save(course);
     }
 
+    @Override
+    @Transactional
+    public BulkEnrollmentResult enrollStudents(Long courseId, Reader source) {
+        Locale locale = LocaleContextHolder.getLocale();
+        CourseRef course = courseEnrollmentJdbcRepository.findCourse(courseId)
+                .orElseThrow(() -> {
+                    String message = messageSource.getMessage("error.course.not.found", null, locale);
+                    return new RuntimeException(message);
+                });
+
+        BulkEnrollmentResult result = BulkEnrollmentResult.builder().build();
+        Set<String> seenIdentifiers = new HashSet<>();
+        Set<Long> enrolledIds = new HashSet<>();
+        Map<String, Integer> chunk = new LinkedHashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(source)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String identifier = parseIdentifier(line);
+                if (identifier.isEmpty()
+                        || (lineNumber == 1 && ENROLLMENT_HEADERS.contains(identifier.toLowerCase()))) {
+                    continue;
+                }
+                if (!seenIdentifiers.add(identifier)) {
+                    result.addError(lineNumber, identifier,
+                            messageSource.getMessage("courses.enroll.error.duplicate", null, locale));
+                    continue;
+                }
+                chunk.put(identifier, lineNumber);
+                if (chunk.size() == ENROLLMENT_BATCH_SIZE) {
+                    enrollChunk(course, chunk, enrolledIds, result, locale);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            String message = messageSource.getMessage("courses.enroll.error.read", new Object[]{e.getMessage()}, locale);
+            throw new RuntimeException(message);
+        }
+        if (!chunk.isEmpty()) {
+            enrollChunk(course, chunk, enrolledIds, result, locale);
+        }
+        if (result.getEnrolled() > 0) {
+            secondLevelCache.evictCourse(courseId);
+        }
+        return result;
+    }
+
+    private void enrollChunk(CourseRef course, Map<String, Integer> chunk, Set<Long> enrolledIds,
+                             BulkEnrollmentResult result, Locale locale) {
+        Map<String, Candidate> candidates = new HashMap<>();
+        for (Candidate candidate : courseEnrollmentJdbcRepository.findCandidates(course.getId(), chunk.keySet())) {
+            candidates.put(candidate.getUsername(), candidate);
+            candidates.put(candidate.getEmail(), candidate);
+        }
+
+        List<Long> toInsert = new ArrayList<>();
+        chunk.forEach((identifier, lineNumber) -> {
+            Candidate candidate = candidates.get(identifier);
+            String errorKey = null;
+            if (candidate == null) {
+                errorKey = "courses.enroll.error.not.found";
+            } else if (!candidate.isStudent()) {
+                errorKey = "courses.add.student.error.not.student";
+            } else if (candidate.getStatus() != UserStatus.APPROVED.ordinal()) {
+                errorKey = "courses.enroll.error.not.approved";
+            } else if (candidate.getId().equals(course.getTeacherId())) {
+                errorKey = "courses.enroll.error.is.teacher";
+            } else if (candidate.isEnrolled()) {
+                result.setAlreadyEnrolled(result.getAlreadyEnrolled() + 1);
+            } else if (!enrolledIds.add(candidate.getId())) {
+                errorKey = "courses.enroll.error.duplicate";
+            } else {
+                toInsert.add(candidate.getId());
+            }
+            if (errorKey != null) {
+                result.addError(lineNumber, identifier, messageSource.getMessage(errorKey, null, locale));
+            }
+        });
+
+        if (!toInsert.isEmpty()) {
+            int inserted = courseEnrollmentJdbcRepository.insertEnrollments(course.getId(), toInsert);
+            result.setEnrolled(result.getEnrolled() + inserted);
+            result.setAlreadyEnrolled(result.getAlreadyEnrolled() + toInsert.size() - inserted);
+        }
+    }
+
+    private String parseIdentifier(String line) {
+        String value = line.startsWith("\uFEFF") ? line.substring(1) : line;
+        int separator = value.indexOf(',');
+        if (separator < 0) {
+            separator = value.indexOf(';');
+        }
+        if (separator >= 0) {
+            value = value.substring(0, separator);
+        }
+        value = value.trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1).trim();
+        }
+        return value;
+    }
+
     @Override
     @Transactional
     public void removeStudentFromCourse(Long courseId, Long studentId) {
@@ -171,16 +306,9 @@ public class CourseServiceImpl implements CourseService {
 
 
     @Override
-    public List<User> getCourseParticipants(Long courseId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new RuntimeException("Course not found"));
-        
-        List<User> participants = new ArrayList<>();
-        if (course.getTeacher() != null) {
-            participants.add(course.getTeacher());
-        }
-        participants.addAll(course.getStudents());
-        return participants;
+    @Transactional(readOnly = true)
+    public List<ParticipantRow> getCourseStudents(Long courseId) {
+        return courseRepository.findStudentRows(courseId);
     }
 }
 
@@ -0,0 +1,225 @@
+package ir.maktabsharif.onlineexam.service.impl;
+import ir.maktabsharif.onlineexam.attempt.AnswerFlusher;
+import ir.maktabsharif.onlineexam.attempt.AttemptTimer;
+import ir.maktabsharif.onlineexam.attempt.ExamSessionStore;
+import ir.maktabsharif.onlineexam.cache.QuestionSnapshotCache;
+import ir.maktabsharif.onlineexam.model.dto.ExamSession;
+import ir.maktabsharif.onlineexam.model.dto.QuestionView;
+import ir.maktabsharif.onlineexam.model.entity.Exam;
+import ir.maktabsharif.onlineexam.model.entity.ExamAttempt;
+import ir.maktabsharif.onlineexam.model.enums.AttemptStatus;
+import ir.maktabsharif.onlineexam.repository.AttemptAnswerJdbcRepository;
+import ir.maktabsharif.onlineexam.repository.CourseRepository;
+import ir.maktabsharif.onlineexam.repository.ExamAttemptRepository;
+import ir.maktabsharif.onlineexam.repository.ExamRepository;
+import ir.maktabsharif.onlineexam.repository.UserRepository;
+import ir.maktabsharif.onlineexam.service.ExamAttemptService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Exam attempts keep their running state in Redis through {@link ExamSessionStore}.
+ * Autosaving an answer never touches the database; answers reach Postgres through
+ * {@link AnswerFlusher}, in batches and once more in full when the attempt ends.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExamAttemptServiceImpl implements ExamAttemptService {
+
+    private final ExamAttemptRepository examAttemptRepository;
+    private final ExamRepository examRepository;
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final AttemptAnswerJdbcRepository attemptAnswerJdbcRepository;
+    private final ExamSessionStore examSessionStore;
+    private final AnswerFlusher answerFlusher;
+    private final AttemptTimer attemptTimer;
+    private final QuestionSnapshotCache questionSnapshotCache;
+    private final MessageSource messageSource;
+
+    @Value("${app.exam.max-answer-length:10000}")
+    private int maxAnswerLength;
+
+    @PostConstruct
+    void registerTimer() {
+        attemptTimer.onExpiry(attemptId -> finishAttempt(attemptId, AttemptStatus.EXPIRED));
+    }
+
+    @Override
+    public ExamSession startAttempt(Long examId, Long studentId) {
+        Exam exam = examRepository.findById(examId)
+                .orElseThrow(() -> error("error.exam.not.found"));
+        if (!courseRepository.isStudentEnrolled(exam.getCourse().getId(), studentId)) {
+            throw error("attempt.error.not.enrolled");
+        }
+
+        var existing = examAttemptRepository.findByExamIdAndStudentId(examId, studentId);
+        if (existing.isPresent()) {
+            return resume(existing.get());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        ExamAttempt attempt = ExamAttempt.builder()
+                .exam(exam)
+                .student(userRepository.findById(studentId)
+                        .orElseThrow(() -> error("error.user.not.found")))
+                .startedAt(now)
+                .deadline(now.plusMinutes(exam.getDurationMinutes()))
+                .build();
+        try {
+            examAttemptRepository.saveAndFlush(attempt);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request of the same student created the attempt first.
+            return resume(examAttemptRepository.findByExamIdAndStudentId(examId, studentId)
+                    .orElseThrow(() -> error("attempt.error.not.found")));
+        }
+
+        ExamSession session = toSession(attempt);
+        examSessionStore.open(session, Map.of());
+        attemptTimer.schedule(attempt.getId(), attempt.getDeadline());
+        log.info("Student {} started attempt {} of exam {}", studentId, attempt.getId(), examId);
+        return session;
+    }
+
+    @Override
+    public ExamSession getSession(Long attemptId, Long studentId) {
+        ExamSession session = loadSession(attemptId);
+        if (!session.getStudentId().equals(studentId)) {
+            throw error("error.unauthorized");
+        }
+        return session;
+    }
+
+    @Override
+    public Map<Long, String> getAnswers(Long attemptId) {
+        Map<Long, String> answers = new HashMap<>();
+        examSessionStore.getAnswers(attemptId).forEach((questionId, saved) -> answers.put(questionId, saved.getAnswer()));
+        return answers;
+    }
+
+    @Override
+    public long saveAnswer(Long attemptId, String username, Long questionId, String answer) {
+        ExamSession session = loadSession(attemptId);
+        if (!session.getStudentUsername().equals(username)) {
+            throw error("error.unauthorized");
+        }
+        if (!session.isOpen()) {
+            throw error("attempt.error.closed");
+        }
+        if (answer != null && answer.length() > maxAnswerLength) {
+            throw error("attempt.error.answer.too.long");
+        }
+        QuestionView question = questionSnapshotCache.get(session.getExamId()).find(questionId)
+                .orElseThrow(() -> error("attempt.error.question"));
+        if (question.isMultipleChoice() && answer != null && !answer.isEmpty() && !isOptionIndex(question, answer)) {
+            throw error("attempt.error.option");
+        }
+        if (!examSessionStore.saveAnswer(session, questionId, answer)) {
+            // Submitted or expired since the session was loaded.
+            throw error("attempt.error.closed");
+        }
+        return session.remainingSeconds();
+    }
+
+    @Override
+    public void submitAttempt(Long attemptId, Long studentId) {
+        ExamSession session = getSession(attemptId, studentId);
+        if (session.getStatus() != AttemptStatus.IN_PROGRESS) {
+            throw error("attempt.error.finished");
+        }
+        finish(session, session.isOpen() ? AttemptStatus.SUBMITTED : AttemptStatus.EXPIRED);
+    }
+
+    @Override
+    public void finishAttempt(Long attemptId, AttemptStatus status) {
+        examSessionStore.find(attemptId)
+                .or(() -> examAttemptRepository.findWithExamById(attemptId).map(this::toSession))
+                .ifPresent(session -> finish(session, status));
+    }
+
+    @Override
+    public Map<Long, AttemptStatus> getAttemptStatuses(Long studentId, Long courseId) {
+        return examAttemptRepository.findByStudentIdAndCourseId(studentId, courseId).stream()
+                .collect(Collectors.toMap(attempt -> attempt.getExam().getId(), ExamAttempt::getStatus));
+    }
+
+    private boolean isOptionIndex(QuestionView question, String answer) {
+        try {
+            int option = Integer.parseInt(answer);
+            return option >= 0 && option < question.getOptions().size();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private void finish(ExamSession session, AttemptStatus status) {
+        if (session.getStatus() != AttemptStatus.IN_PROGRESS) {
+            return;
+        }
+        attemptTimer.cancel(session.getAttemptId());
+        session.setStatus(status);
+        examSessionStore.update(session);
+
+        answerFlusher.flushAll(session.getAttemptId());
+        int updated = examAttemptRepository.finish(session.getAttemptId(), AttemptStatus.IN_PROGRESS,
+                status, LocalDateTime.now());
+        examSessionStore.close(session.getAttemptId());
+        if (updated > 0) {
+            log.info("Attempt {} finished as {}", session.getAttemptId(), status);
+        }
+    }
+
+    private ExamSession loadSession(Long attemptId) {
+        return examSessionStore.find(attemptId)
+                .orElseGet(() -> resume(examAttemptRepository.findWithExamById(attemptId)
+                        .orElseThrow(() -> error("attempt.error.not.found"))));
+    }
+
+    /**
+     * Returns the Redis session of an attempt, rebuilding it from the database when
+     * Redis no longer has it (restart or eviction).
+     */
+    private ExamSession resume(ExamAttempt attempt) {
+        if (attempt.getStatus() != AttemptStatus.IN_PROGRESS) {
+            throw error("attempt.error.finished");
+        }
+        attemptTimer.schedule(attempt.getId(), attempt.getDeadline());
+        return examSessionStore.find(attempt.getId()).orElseGet(() -> {
+            ExamSession session = toSession(attempt);
+            examSessionStore.open(session, attemptAnswerJdbcRepository.findAnswers(attempt.getId()));
+            log.info("Rebuilt Redis session of attempt {} from the database", attempt.getId());
+            return session;
+        });
+    }
+
+    private ExamSession toSession(ExamAttempt attempt) {
+        Exam exam = attempt.getExam();
+        return ExamSession.builder()
+                .attemptId(attempt.getId())
+                .examId(exam.getId())
+                .courseId(exam.getCourse().getId())
+                .studentId(attempt.getStudent().getId())
+                .studentUsername(attempt.getStudent().getUsername())
+                .examTitle(exam.getTitle())
+                .status(attempt.getStatus())
+                .deadlineMillis(attempt.getDeadline().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                .build();
+    }
+
+    private RuntimeException error(String key) {
+        String message = messageSource.getMessage(key, null, LocaleContextHolder.getLocale());
+        return new RuntimeException(message);
+    }
+}
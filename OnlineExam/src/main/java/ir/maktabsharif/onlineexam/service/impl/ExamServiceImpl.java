@@ -1,9 +1,13 @@
 package ir.maktabsharif.onlineexam.service.impl;
+import ir.maktabsharif.onlineexam.cache.QuestionSnapshotCache;
+import ir.maktabsharif.onlineexam.model.dto.ExamRow;
 import ir.maktabsharif.onlineexam.model.entity.Course;
 import ir.maktabsharif.onlineexam.model.entity.Exam;
 import ir.maktabsharif.onlineexam.model.entity.User;
 import ir.maktabsharif.onlineexam.repository.CourseRepository;
+import ir.maktabsharif.onlineexam.repository.ExamAttemptRepository;
 import ir.maktabsharif.onlineexam.repository.ExamRepository;
+import ir.maktabsharif.onlineexam.repository.QuestionRepository;
 import ir.maktabsharif.onlineexam.repository.UserRepository;
 import ir.maktabsharif.onlineexam.service.ExamService;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +22,9 @@ public class ExamServiceImpl implements ExamService {
     private final ExamRepository examRepository;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final ExamAttemptRepository examAttemptRepository;
+    private final QuestionRepository questionRepository;
+    private final QuestionSnapshotCache questionSnapshotCache;
 
     @Override
     @Transactional
@@ -70,7 +77,12 @@ public class ExamServiceImpl implements ExamService {
         if (!examRepository.existsById(examId)) {
             throw new RuntimeException("Exam not found");
         }
+        if (examAttemptRepository.existsByExamId(examId)) {
+            throw new RuntimeException("exams.delete.error.has.attempts");
+        }
+        questionRepository.deleteByExamId(examId);
         examRepository.deleteById(examId);
+        questionSnapshotCache.invalidate(examId);
     }
 
     @Override
@@ -82,8 +94,8 @@ public class ExamServiceImpl implements ExamService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Exam> getExamsByCourse(Course course) {
-        return examRepository.findByCourseOrderByIdDesc(course);
+    public List<ExamRow> getExamRowsByCourse(Long courseId) {
+        return examRepository.findRowsByCourseId(courseId);
     }
 
 
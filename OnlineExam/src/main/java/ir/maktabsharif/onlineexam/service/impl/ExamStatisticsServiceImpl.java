@@ -0,0 +1,103 @@
+package ir.maktabsharif.onlineexam.service.impl;
+import ir.maktabsharif.onlineexam.cache.QuestionSnapshotCache;
+import ir.maktabsharif.onlineexam.grading.AnswerKey;
+import ir.maktabsharif.onlineexam.grading.StatisticsRebuildJob;
+import ir.maktabsharif.onlineexam.model.dto.CourseStatistics;
+import ir.maktabsharif.onlineexam.model.dto.ExamQuestions;
+import ir.maktabsharif.onlineexam.model.dto.ExamStatisticsView;
+import ir.maktabsharif.onlineexam.model.dto.ExamStatisticsView.QuestionStatistics;
+import ir.maktabsharif.onlineexam.model.dto.QuestionView;
+import ir.maktabsharif.onlineexam.model.entity.ExamQuestionStatistics;
+import ir.maktabsharif.onlineexam.model.entity.ExamScoreBucket;
+import ir.maktabsharif.onlineexam.model.entity.ExamStatistics;
+import ir.maktabsharif.onlineexam.repository.ExamStatisticsRepository;
+import ir.maktabsharif.onlineexam.service.ExamStatisticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the statistics kept up to date by grading. Nothing here scans attempts; every
+ * figure is derived from the per-exam totals, buckets and per-question counters.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExamStatisticsServiceImpl implements ExamStatisticsService {
+
+    private final ExamStatisticsRepository examStatisticsRepository;
+    private final QuestionSnapshotCache questionSnapshotCache;
+    private final StatisticsRebuildJob statisticsRebuildJob;
+
+    @Override
+    @Transactional(readOnly = true)
+    public ExamStatisticsView getExamStatistics(Long examId) {
+        ExamQuestions examQuestions = questionSnapshotCache.get(examId);
+        ExamStatisticsView.ExamStatisticsViewBuilder view = ExamStatisticsView.builder()
+                .examId(examId)
+                .maxPossibleScore(AnswerKey.of(examQuestions).getMaxScore());
+
+        List<Long> histogram = new ArrayList<>(Collections.nCopies(ExamStatistics.BUCKETS, 0L));
+        for (ExamScoreBucket bucket : examStatisticsRepository.findBuckets(examId)) {
+            if (bucket.getBucket() < histogram.size()) {
+                histogram.set(bucket.getBucket(), bucket.getAttemptCount());
+            }
+        }
+        view.histogram(histogram);
+
+        long attemptCount = 0;
+        Optional<ExamStatistics> statistics = examStatisticsRepository.findByExamId(examId);
+        if (statistics.isPresent()) {
+            ExamStatistics totals = statistics.get();
+            CourseStatistics moments = new CourseStatistics(totals.getAttemptCount(),
+                    totals.getScoreSum(), totals.getScoreSumSquares());
+            attemptCount = totals.getAttemptCount();
+            view.attemptCount(attemptCount)
+                    .mean(moments.getMean())
+                    .standardDeviation(moments.getStandardDeviation())
+                    .minScore(totals.getMinScore())
+                    .maxScore(totals.getMaxScore())
+                    .updatedAt(totals.getUpdatedAt());
+        }
+
+        Map<Long, Long> correctCounts = examStatisticsRepository.findQuestionStatistics(examId).stream()
+                .collect(Collectors.toMap(ExamQuestionStatistics::getQuestionId, ExamQuestionStatistics::getCorrectCount));
+        List<QuestionStatistics> questions = new ArrayList<>();
+        for (QuestionView question : examQuestions.getQuestions()) {
+            if (!question.isMultipleChoice()) {
+                continue;
+            }
+            long correct = correctCounts.getOrDefault(question.getId(), 0L);
+            questions.add(QuestionStatistics.builder()
+                    .questionId(question.getId())
+                    .text(question.getText())
+                    .correctCount(correct)
+                    .correctRate(attemptCount == 0 ? 0 : (double) correct / attemptCount)
+                    .build());
+        }
+        return view.questions(questions).build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CourseStatistics getCourseStatistics(Long courseId) {
+        return examStatisticsRepository.findCourseStatistics(courseId);
+    }
+
+    @Override
+    public void rebuildExamStatistics(Long examId) {
+        if (!statisticsRebuildJob.rebuild(examId)) {
+            throw new RuntimeException("statistics.error.grading.running");
+        }
+    }
+
+    @Override
+    public boolean rebuildAllStatistics() {
+        return statisticsRebuildJob.rebuildAll();
+    }
+}
@@ -0,0 +1,146 @@
+package ir.maktabsharif.onlineexam.service.impl;
+import ir.maktabsharif.onlineexam.export.ExportFormat;
+import ir.maktabsharif.onlineexam.export.TableWriter;
+import ir.maktabsharif.onlineexam.model.enums.AttemptStatus;
+import ir.maktabsharif.onlineexam.repository.ExportJdbcRepository;
+import ir.maktabsharif.onlineexam.service.ExportService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams rosters and exam results from a database cursor into a {@link TableWriter}.
+ * Each row is written as soon as it is read, so memory use does not depend on the
+ * number of rows. The locale is passed in because exports run on an async thread,
+ * outside the request's locale context.
+ *
+ * <p>Every running export holds a database connection until the client has the whole
+ * file, so at most {@code app.export.max-concurrent} run at once; a further request
+ * waits up to {@code app.export.acquire-timeout-ms} for a slot and then fails with
+ * {@code export.busy}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ExportJdbcRepository exportJdbcRepository;
+    private final MessageSource messageSource;
+
+    @Value("${app.export.max-concurrent:3}")
+    private int maxConcurrent;
+
+    @Value("${app.export.acquire-timeout-ms:5000}")
+    private long acquireTimeoutMillis;
+
+    private Semaphore slots;
+
+    @PostConstruct
+    void init() {
+        slots = new Semaphore(maxConcurrent);
+    }
+
+    @Override
+    public void exportParticipants(Long courseId, ExportFormat format, Locale locale, OutputStream output) throws IOException {
+        acquireSlot();
+        try (TableWriter writer = format.open(output, message("courses.participants", locale))) {
+            writer.writeRow(
+                    message("users.username", locale),
+                    message("users.firstName", locale),
+                    message("users.lastName", locale),
+                    message("users.email", locale));
+            try {
+                exportJdbcRepository.streamParticipants(courseId, rs -> write(writer,
+                        rs.getString("username"),
+                        rs.getString("first_name"),
+                        rs.getString("last_name"),
+                        rs.getString("email")));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } finally {
+            slots.release();
+        }
+    }
+
+    @Override
+    public void exportExamResults(Long examId, ExportFormat format, Locale locale, OutputStream output) throws IOException {
+        AttemptStatus[] statuses = AttemptStatus.values();
+        String[] statusLabels = new String[statuses.length];
+        for (AttemptStatus status : statuses) {
+            statusLabels[status.ordinal()] = message("attempt.status." + status.name(), locale);
+        }
+
+        acquireSlot();
+        try (TableWriter writer = format.open(output, message("export.results", locale))) {
+            writer.writeRow(
+                    message("users.username", locale),
+                    message("users.firstName", locale),
+                    message("users.lastName", locale),
+                    message("users.email", locale),
+                    message("export.status", locale),
+                    message("export.started.at", locale),
+                    message("export.submitted.at", locale),
+                    message("export.score", locale),
+                    message("export.graded.at", locale));
+            try {
+                exportJdbcRepository.streamExamResults(examId, rs -> {
+                    double score = rs.getDouble("score");
+                    Double scoreValue = rs.wasNull() ? null : score;
+                    write(writer,
+                            rs.getString("username"),
+                            rs.getString("first_name"),
+                            rs.getString("last_name"),
+                            rs.getString("email"),
+                            statusLabels[rs.getInt("status")],
+                            format(rs.getTimestamp("started_at")),
+                            format(rs.getTimestamp("submitted_at")),
+                            scoreValue,
+                            format(rs.getTimestamp("graded_at")));
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } finally {
+            slots.release();
+        }
+    }
+
+    private void acquireSlot() {
+        try {
+            if (slots.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new RuntimeException("export.busy");
+    }
+
+    private void write(TableWriter writer, Object... values) {
+        try {
+            writer.writeRow(values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String format(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime().format(DATE_TIME_FORMAT);
+    }
+
+    private String message(String key, Locale locale) {
+        return messageSource.getMessage(key, null, key, locale);
+    }
+}
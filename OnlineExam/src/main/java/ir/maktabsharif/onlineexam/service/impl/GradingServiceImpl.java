@@ -0,0 +1,43 @@
+package ir.maktabsharif.onlineexam.service.impl;
+import ir.maktabsharif.onlineexam.grading.GradingEngine;
+import ir.maktabsharif.onlineexam.grading.GradingStatus;
+import ir.maktabsharif.onlineexam.model.dto.ExamGradingCount;
+import ir.maktabsharif.onlineexam.repository.ExamAttemptRepository;
+import ir.maktabsharif.onlineexam.service.GradingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class GradingServiceImpl implements GradingService {
+
+    private final GradingEngine gradingEngine;
+    private final ExamAttemptRepository examAttemptRepository;
+
+    @Override
+    public GradingStatus startGrading(Long examId) {
+        return gradingEngine.grade(examId);
+    }
+
+    /**
+     * Attempt counts come from the database, so progress written by any node shows up;
+     * whether a run is going and how many of its chunks failed is known only to the
+     * node running it.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, GradingStatus> getGradingStatuses(Long courseId) {
+        Map<Long, GradingStatus> statuses = new HashMap<>();
+        for (ExamGradingCount count : examAttemptRepository.countGradingByCourseId(courseId, GradingEngine.FINISHED)) {
+            GradingStatus status = gradingEngine.getRun(count.getExamId())
+                    .orElseGet(() -> GradingStatus.builder().examId(count.getExamId()).build());
+            status.setFinishedAttempts(count.getFinished());
+            status.setGradedAttempts(count.getGraded());
+            statuses.put(count.getExamId(), status);
+        }
+        return statuses;
+    }
+}
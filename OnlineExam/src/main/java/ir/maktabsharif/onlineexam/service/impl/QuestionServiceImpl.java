@@ -0,0 +1,301 @@
+package ir.maktabsharif.onlineexam.service.impl;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.maktabsharif.onlineexam.cache.QuestionSnapshotCache;
+import ir.maktabsharif.onlineexam.model.dto.ExamQuestions;
+import ir.maktabsharif.onlineexam.model.dto.QuestionImportResult;
+import ir.maktabsharif.onlineexam.model.dto.QuestionInput;
+import ir.maktabsharif.onlineexam.model.entity.Exam;
+import ir.maktabsharif.onlineexam.model.entity.Question;
+import ir.maktabsharif.onlineexam.model.enums.QuestionType;
+import ir.maktabsharif.onlineexam.repository.ExamRepository;
+import ir.maktabsharif.onlineexam.repository.QuestionJdbcRepository;
+import ir.maktabsharif.onlineexam.repository.QuestionRepository;
+import ir.maktabsharif.onlineexam.service.QuestionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+@RequiredArgsConstructor
+public class QuestionServiceImpl implements QuestionService {
+
+    private static final int IMPORT_BATCH_SIZE = 500;
+
+    private final QuestionRepository questionRepository;
+    private final QuestionJdbcRepository questionJdbcRepository;
+    private final ExamRepository examRepository;
+    private final QuestionSnapshotCache questionSnapshotCache;
+    private final ObjectMapper objectMapper;
+    private final MessageSource messageSource;
+
+    @Override
+    public ExamQuestions getExamQuestions(Long examId) {
+        return questionSnapshotCache.get(examId);
+    }
+
+    @Override
+    @Transactional
+    public void addQuestion(Long examId, QuestionInput input) {
+        Locale locale = LocaleContextHolder.getLocale();
+        Exam exam = examRepository.findById(examId)
+                .orElseThrow(() -> new RuntimeException(messageSource.getMessage("error.exam.not.found", null, locale)));
+
+        String error = validate(input);
+        if (error != null) {
+            throw new RuntimeException(messageSource.getMessage(error, null, locale));
+        }
+
+        Question question = Question.builder()
+                .exam(exam)
+                .type(input.getType())
+                .text(input.getText().trim())
+                .options(input.getOptions())
+                .correctOption(input.getCorrectOption())
+                .score(input.getScore())
+                .sortOrder(questionRepository.findMaxSortOrder(examId) + 1)
+                .build();
+        questionRepository.save(question);
+        questionSnapshotCache.invalidate(examId);
+    }
+
+    @Override
+    @Transactional
+    public void deleteQuestion(Long examId, Long questionId) {
+        Locale locale = LocaleContextHolder.getLocale();
+        Question question = questionRepository.findById(questionId)
+                .filter(q -> q.getExam().getId().equals(examId))
+                .orElseThrow(() -> new RuntimeException(messageSource.getMessage("questions.error.not.found", null, locale)));
+        questionRepository.delete(question);
+        questionSnapshotCache.invalidate(examId);
+    }
+
+    /**
+     * Imports one question per line: {@code type,text,score,correct,option1,option2,...}.
+     * {@code correct} is the 1-based number of the correct option. Fields may be quoted
+     * with double quotes; quoted fields cannot span lines.
+     */
+    @Override
+    @Transactional
+    public QuestionImportResult importCsv(Long examId, Reader source) {
+        Locale locale = LocaleContextHolder.getLocale();
+        QuestionImporter importer = new QuestionImporter(examId, locale);
+
+        try (BufferedReader reader = new BufferedReader(source)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                    line = line.substring(1);
+                }
+                if (line.isBlank() || (lineNumber == 1 && line.toLowerCase().startsWith("type"))) {
+                    continue;
+                }
+                QuestionInput input;
+                try {
+                    input = parseCsvRow(parseCsvLine(line));
+                } catch (IllegalArgumentException e) {
+                    importer.reject(lineNumber, "questions.import.error.format");
+                    continue;
+                }
+                importer.accept(lineNumber, input);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(messageSource.getMessage("questions.import.error.read",
+                    new Object[]{e.getMessage()}, locale));
+        }
+        return importer.finish();
+    }
+
+    /**
+     * Imports a JSON array of question objects. The array is read one element at a
+     * time, so the upload is never held in memory as a whole.
+     */
+    @Override
+    @Transactional
+    public QuestionImportResult importJson(Long examId, Reader source) {
+        Locale locale = LocaleContextHolder.getLocale();
+        QuestionImporter importer = new QuestionImporter(examId, locale);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(source)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RuntimeException(messageSource.getMessage("questions.import.error.json", null, locale));
+            }
+            parser.nextToken();
+            int rowNumber = 0;
+            try (MappingIterator<QuestionInput> rows = objectMapper.readerFor(QuestionInput.class).readValues(parser)) {
+                while (rows.hasNext()) {
+                    rowNumber++;
+                    importer.accept(rowNumber, rows.next());
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(messageSource.getMessage("questions.import.error.read",
+                    new Object[]{e.getMessage()}, locale));
+        }
+        return importer.finish();
+    }
+
+    private QuestionInput parseCsvRow(List<String> fields) {
+        if (fields.size() < 2) {
+            throw new IllegalArgumentException("Too few columns");
+        }
+        QuestionInput input = new QuestionInput();
+        input.setType(parseType(fields.get(0)));
+        input.setText(fields.get(1));
+        if (fields.size() > 2 && !fields.get(2).isBlank()) {
+            input.setScore(Double.valueOf(fields.get(2).trim()));
+        }
+        if (fields.size() > 3 && !fields.get(3).isBlank()) {
+            input.setCorrectOption(Integer.parseInt(fields.get(3).trim()) - 1);
+        }
+        List<String> options = new ArrayList<>();
+        for (int i = 4; i < fields.size(); i++) {
+            if (!fields.get(i).isBlank()) {
+                options.add(fields.get(i).trim());
+            }
+        }
+        input.setOptions(options);
+        return input;
+    }
+
+    private QuestionType parseType(String value) {
+        String type = value.trim().toUpperCase();
+        if (type.equals("MC")) {
+            return QuestionType.MULTIPLE_CHOICE;
+        }
+        return QuestionType.valueOf(type);
+    }
+
+    private List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Returns the message key of the first problem with the question, or {@code null}
+     * if it is valid. Fills in defaults on the way.
+     */
+    private String validate(QuestionInput input) {
+        if (input.getType() == null) {
+            return "questions.error.type";
+        }
+        if (input.getText() == null || input.getText().isBlank()) {
+            return "questions.error.text.required";
+        }
+        if (input.getScore() == null) {
+            input.setScore(1.0);
+        }
+        if (input.getScore() <= 0) {
+            return "questions.error.score";
+        }
+        if (input.getOptions() == null) {
+            input.setOptions(new ArrayList<>());
+        }
+        if (input.getType() == QuestionType.MULTIPLE_CHOICE) {
+            if (input.getOptions().size() < 2) {
+                return "questions.error.options";
+            }
+            if (input.getCorrectOption() == null || input.getCorrectOption() < 0
+                    || input.getCorrectOption() >= input.getOptions().size()) {
+                return "questions.error.correct";
+            }
+        } else {
+            input.setOptions(new ArrayList<>());
+            input.setCorrectOption(null);
+        }
+        return null;
+    }
+
+    /**
+     * Collects valid rows and writes them in batches of {@link #IMPORT_BATCH_SIZE}.
+     */
+    private class QuestionImporter {
+        private final Long examId;
+        private final Locale locale;
+        private final QuestionImportResult result = QuestionImportResult.builder().build();
+        private final List<QuestionInput> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        private int nextSortOrder;
+
+        QuestionImporter(Long examId, Locale locale) {
+            if (!examRepository.existsById(examId)) {
+                throw new RuntimeException(messageSource.getMessage("error.exam.not.found", null, locale));
+            }
+            this.examId = examId;
+            this.locale = locale;
+            this.nextSortOrder = questionRepository.findMaxSortOrder(examId) + 1;
+        }
+
+        void accept(int rowNumber, QuestionInput input) {
+            String error = validate(input);
+            if (error != null) {
+                reject(rowNumber, error);
+                return;
+            }
+            input.setText(input.getText().trim());
+            batch.add(input);
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(int rowNumber, String messageKey) {
+            result.addError(rowNumber, messageSource.getMessage(messageKey, null, locale));
+        }
+
+        QuestionImportResult finish() {
+            flush();
+            if (result.getImported() > 0) {
+                questionSnapshotCache.invalidate(examId);
+            }
+            return result;
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            questionJdbcRepository.insertQuestions(examId, batch, nextSortOrder);
+            nextSortOrder += batch.size();
+            result.setImported(result.getImported() + batch.size());
+            batch.clear();
+        }
+    }
+}
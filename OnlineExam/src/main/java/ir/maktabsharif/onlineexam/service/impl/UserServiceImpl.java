@@ -1,15 +1,24 @@
 package ir.maktabsharif.onlineexam.service.impl;
+import ir.maktabsharif.onlineexam.cache.SecondLevelCache;
+import ir.maktabsharif.onlineexam.mail.MailOutboxWriter;
+import ir.maktabsharif.onlineexam.model.dto.UserPage;
 import ir.maktabsharif.onlineexam.model.entity.Role;
 import ir.maktabsharif.onlineexam.model.entity.User;
+import ir.maktabsharif.onlineexam.model.enums.MailType;
 import ir.maktabsharif.onlineexam.model.enums.UserStatus;
 import ir.maktabsharif.onlineexam.model.helper.UserUpdateChanges;
 import ir.maktabsharif.onlineexam.repository.CourseRepository;
-import ir.maktabsharif.onlineexam.repository.RoleRepository;
 import ir.maktabsharif.onlineexam.repository.UserRepository;
+import ir.maktabsharif.onlineexam.repository.UserStatusJdbcRepository;
+import ir.maktabsharif.onlineexam.security.RoleRegistry;
 import ir.maktabsharif.onlineexam.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,11 +32,16 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final UserStatusJdbcRepository userStatusJdbcRepository;
+    private final RoleRegistry roleRegistry;
     private final CourseRepository courseRepository;
     private final PasswordEncoder passwordEncoder;
     private final MessageSource messageSource;
+    private final MailOutboxWriter mailOutboxWriter;
+    private final SecondLevelCache secondLevelCache;
 
     @Override
     @Transactional
@@ -68,7 +82,7 @@ public class UserServiceImpl implements UserService {
             userRepository.flush();
         }
         Locale locale = LocaleContextHolder.getLocale();
-        Role role = roleRepository.findByName(roleName)
+        Role role = roleRegistry.find(roleName)
                 .orElseThrow(() -> {
                     String message = messageSource.getMessage("error.role.not.found", 
                         new Object[]{roleName}, locale);
@@ -95,7 +109,16 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setStatus(UserStatus.APPROVED);
         user.setRejectionReason(null);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        mailOutboxWriter.record(MailType.USER_APPROVAL, saved, LocaleContextHolder.getLocale(), null, null);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public int approveUsers(String roleName, String firstName, String lastName, String query) {
+        return changePendingUsersStatus(roleName, firstName, lastName, query, UserStatus.APPROVED, null,
+                MailType.USER_APPROVAL);
     }
 
     @Override
@@ -105,25 +128,63 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setStatus(UserStatus.REJECTED);
         user.setRejectionReason(rejectionReason);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        mailOutboxWriter.record(MailType.USER_REJECTION, saved, LocaleContextHolder.getLocale(),
+                rejectionReason, null);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public int rejectUsers(String roleName, String firstName, String lastName, String query,
+                           String rejectionReason) {
+        return changePendingUsersStatus(roleName, firstName, lastName, query, UserStatus.REJECTED, rejectionReason,
+                MailType.USER_REJECTION);
+    }
+
+    /**
+     * Updates the pending users matched by the same filter as the user list, including
+     * the free-text query, so a bulk action never reaches users the admin could not see
+     * on the filtered page. The notifications are built from the rows the update returns.
+     */
+    private int changePendingUsersStatus(String roleName, String firstName, String lastName, String query,
+                                         UserStatus newStatus, String rejectionReason, MailType mailType) {
+        String searchQuery = query != null ? query.trim() : "";
+        List<User> users = userStatusJdbcRepository.updateStatus(roleName, firstName, lastName, searchQuery,
+                UserStatus.PENDING, newStatus, rejectionReason);
+        if (users.isEmpty()) {
+            return 0;
+        }
+        secondLevelCache.evictUsers(users.stream().map(User::getId).toList());
+        mailOutboxWriter.recordAll(mailType, users, LocaleContextHolder.getLocale(), rejectionReason);
+        return users.size();
     }
 
     @Override
     @Transactional
     public User updateUser(Long userId, User updatedUser) {
-        UserUpdateChanges changes = updateUserWithChanges(userId, updatedUser);
-        return userRepository.findById(userId)
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        applyChanges(user, updatedUser, UserUpdateChanges.builder().build());
+        return userRepository.save(user);
     }
 
     @Override
     @Transactional
-    public UserUpdateChanges updateUserWithChanges(Long userId, User updatedUser) {
+    public UserUpdateChanges updateUserWithChanges(Long userId, User updatedUser, UserUpdateChanges changes) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        applyChanges(user, updatedUser, changes);
+        userRepository.save(user);
+        if (changes.hasChanges()) {
+            mailOutboxWriter.record(MailType.USER_UPDATE, user, LocaleContextHolder.getLocale(), null, changes);
+        }
+        return changes;
+    }
+
+    void applyChanges(User user, User updatedUser, UserUpdateChanges changes) {
         Locale locale = LocaleContextHolder.getLocale();
-        UserUpdateChanges changes = UserUpdateChanges.builder().build();
 
         if (updatedUser.getFirstName() != null && !updatedUser.getFirstName().equals(user.getFirstName())) {
             String firstNameLabel = messageSource.getMessage("users.firstName", null, locale);
@@ -144,8 +205,6 @@ public class UserServiceImpl implements UserService {
             changes.setPasswordChanged(true);
             user.setPassword(passwordEncoder.encode(updatedUser.getPassword()));
         }
-        userRepository.save(user);
-        return changes;
     }
 
     @Override
@@ -167,6 +226,55 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public UserPage searchUsersPage(String roleName, String firstName, String lastName, UserStatus status,
+                                    String query, int page, int size, Long afterId, boolean includeCount) {
+        String searchQuery = query != null ? query.trim() : "";
+        boolean ranked = !searchQuery.isEmpty();
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = afterId != null && !ranked ? 0 : Math.max(page, 0);
+        long cursor = afterId != null && !ranked ? afterId : 0L;
+        Integer statusOrdinal = status != null ? status.ordinal() : null;
+        boolean filtered = ranked
+                || (roleName != null && !roleName.isEmpty())
+                || (firstName != null && !firstName.isEmpty())
+                || (lastName != null && !lastName.isEmpty())
+                || status != null;
+
+        List<User> users;
+        boolean hasNext;
+        if (filtered) {
+            List<User> rows = userRepository.searchUsersPage(roleName, firstName, lastName, statusOrdinal,
+                    searchQuery, cursor, pageNumber * pageSize, pageSize + 1);
+            hasNext = rows.size() > pageSize;
+            users = hasNext ? rows.subList(0, pageSize) : rows;
+        } else {
+            Slice<User> slice = userRepository.findByIdGreaterThan(cursor,
+                    PageRequest.of(pageNumber, pageSize, Sort.by("id")));
+            hasNext = slice.hasNext();
+            users = slice.getContent();
+        }
+
+        users.forEach(user -> Hibernate.initialize(user.getRoles()));
+
+        Long totalElements = null;
+        if (includeCount) {
+            totalElements = filtered
+                    ? userRepository.countSearchUsers(roleName, firstName, lastName, statusOrdinal, searchQuery)
+                    : userRepository.count();
+        }
+
+        return UserPage.builder()
+                .content(users)
+                .page(pageNumber)
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextAfterId(ranked || users.isEmpty() ? null : users.get(users.size() - 1).getId())
+                .totalElements(totalElements)
+                .build();
+    }
+
     @Override
     public User findById(Long id) {
         return userRepository.findById(id)
@@ -174,9 +282,12 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public User findByUsername(String username) {
-        return userRepository.findByUsername(username)
+        User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        Hibernate.initialize(user.getRoles());
+        return user;
     }
 
 
@@ -184,7 +295,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
-    public void deleteUser(Long userId, Long currentUserId) {
+    public void deleteUser(Long userId, Long currentUserId, String deletionReason) {
         Locale locale = LocaleContextHolder.getLocale();
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> {
@@ -197,13 +308,13 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException(message);
         }
 
-        Role adminRole = roleRepository.findByName("ROLE_ADMIN")
+        Role adminRole = roleRegistry.find("ROLE_ADMIN")
                 .orElseThrow(() -> {
                     String message = messageSource.getMessage("error.role.admin.not.found", null, locale);
                     return new RuntimeException(message);
                 });
 
-        if (user.getRoles().contains(adminRole)) {
+        if (user.hasRole(adminRole.getName())) {
             List<User> allAdmins = userRepository.findByRolesContaining(adminRole);
             long remainingAdmins = allAdmins.stream()
                     .filter(admin -> !admin.getId().equals(userId))
@@ -216,13 +327,7 @@ public class UserServiceImpl implements UserService {
             }
         }
 
-        Role teacherRole = roleRepository.findByName("ROLE_TEACHER")
-                .orElseThrow(() -> {
-                    String message = messageSource.getMessage("error.role.teacher.not.found", null, locale);
-                    return new RuntimeException(message);
-                });
-
-        if (user.getRoles().contains(teacherRole)) {
+        if (user.hasRole("ROLE_TEACHER")) {
             var courses = courseRepository.findByTeacher(user);
             if (!courses.isEmpty()) {
                 StringBuilder courseList = new StringBuilder();
@@ -252,6 +357,7 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException(message);
         }
 
+        mailOutboxWriter.record(MailType.USER_DELETION, user, locale, deletionReason, null);
         userRepository.deleteById(userId);
     }
 
@@ -282,14 +388,14 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException(message);
         }
 
-        Role role = roleRepository.findByName(roleName)
+        Role role = roleRegistry.find(roleName)
                 .orElseThrow(() -> {
                     String message = messageSource.getMessage("error.role.not.found",
                             new Object[]{roleName}, locale);
                     return new RuntimeException(message);
                 });
 
-        if (user.getRoles().contains(role)) {
+        if (user.hasRole(roleName)) {
             String message = messageSource.getMessage("register.add.role.already.has",
                     new Object[]{roleName}, locale);
             throw new RuntimeException(message);
@@ -322,7 +428,7 @@ public class UserServiceImpl implements UserService {
 
         Set<Role> newRoles = new HashSet<>();
         for (String roleName : roleNames) {
-            Role role = roleRepository.findByName(roleName)
+            Role role = roleRegistry.find(roleName)
                     .orElseThrow(() -> {
                         String message = messageSource.getMessage("error.role.not.found",
                                 new Object[]{roleName}, locale);
@@ -3,66 +3,84 @@ package ir.maktabsharif.onlineexam.util;
 import org.springframework.context.MessageSource;
 
 import java.util.Locale;
+import java.util.Map;
 
+/**
+ * Password rules shared by registration, password reset and the admin user editor.
+ * The rules are checked in one pass over the characters instead of one regex per
+ * rule; the first rule that fails decides the message, in the order listed below.
+ */
 public class PasswordValidationUtil {
 
+    private static final int MIN_LENGTH = 8;
+    private static final String SPECIAL_CHARACTERS = "!@#$%^&*()_+-=[]{}|;:,.<>?";
+
+    private static final Map<String, String> DEFAULT_MESSAGES = Map.of(
+            "password.validation.required", "رمز عبور الزامی است",
+            "password.validation.trim", "رمز عبور نباید فاصله در ابتدا یا انتها داشته باشد",
+            "password.validation.minlength", "رمز عبور باید حداقل ۸ کاراکتر باشد",
+            "password.validation.uppercase", "رمز عبور باید حداقل یک حرف بزرگ داشته باشد",
+            "password.validation.lowercase", "رمز عبور باید حداقل یک حرف کوچک داشته باشد",
+            "password.validation.digit", "رمز عبور باید حداقل یک عدد داشته باشد",
+            "password.validation.special", "رمز عبور باید حداقل یک کاراکتر خاص داشته باشد");
+
     public static String validate(String password) {
+        String key = findViolation(password);
+        return key != null ? DEFAULT_MESSAGES.get(key) : null;
+    }
+
+    public static String validate(String password, MessageSource messageSource, Locale locale) {
+        String key = findViolation(password);
+        return key != null ? messageSource.getMessage(key, null, locale) : null;
+    }
+
+    public static String validateOptional(String password, MessageSource messageSource, Locale locale) {
         if (password == null || password.isEmpty()) {
-            return "رمز عبور الزامی است";
-        }
-        if (!password.equals(password.trim())) {
-            return "رمز عبور نباید فاصله در ابتدا یا انتها داشته باشد";
-        }
-        if (password.length() < 8) {
-            return "رمز عبور باید حداقل ۸ کاراکتر باشد";
-        }
-        if (!password.matches(".*[A-Z].*")) {
-            return "رمز عبور باید حداقل یک حرف بزرگ داشته باشد";
-        }
-        if (!password.matches(".*[a-z].*")) {
-            return "رمز عبور باید حداقل یک حرف کوچک داشته باشد";
-        }
-        if (!password.matches(".*\\d.*")) {
-            return "رمز عبور باید حداقل یک عدد داشته باشد";
-        }
-        if (!password.matches(".*[!@#$%^&*()_+\\-=\\[\\]{}|;:,.<>?].*")) {
-            return "رمز عبور باید حداقل یک کاراکتر خاص داشته باشد";
+            return null;
         }
-        return null;
+        return validate(password, messageSource, locale);
     }
 
-    public static String validate(String password, MessageSource messageSource, Locale locale) {
+    /** Message key of the first rule the password breaks, or null when it is valid. */
+    private static String findViolation(String password) {
         if (password == null || password.isEmpty()) {
-            return messageSource.getMessage("password.validation.required", null, locale);
+            return "password.validation.required";
         }
-        if (!password.equals(password.trim())) {
-            return messageSource.getMessage("password.validation.trim", null, locale);
+        // Same test as password.equals(password.trim()) without copying the string.
+        if (password.charAt(0) <= ' ' || password.charAt(password.length() - 1) <= ' ') {
+            return "password.validation.trim";
         }
-        if (password.length() < 8) {
-            return messageSource.getMessage("password.validation.minlength", null, locale);
+        if (password.length() < MIN_LENGTH) {
+            return "password.validation.minlength";
         }
-        if (!password.matches(".*[A-Z].*")) {
-            return messageSource.getMessage("password.validation.uppercase", null, locale);
+        boolean upper = false;
+        boolean lower = false;
+        boolean digit = false;
+        boolean special = false;
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                upper = true;
+            } else if (c >= 'a' && c <= 'z') {
+                lower = true;
+            } else if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (SPECIAL_CHARACTERS.indexOf(c) >= 0) {
+                special = true;
+            }
         }
-        if (!password.matches(".*[a-z].*")) {
-            return messageSource.getMessage("password.validation.lowercase", null, locale);
+        if (!upper) {
+            return "password.validation.uppercase";
         }
-        if (!password.matches(".*\\d.*")) {
-            return messageSource.getMessage("password.validation.digit", null, locale);
+        if (!lower) {
+            return "password.validation.lowercase";
         }
-        if (!password.matches(".*[!@#$%^&*()_+\\-=\\[\\]{}|;:,.<>?].*")) {
-            return messageSource.getMessage("password.validation.special", null, locale);
+        if (!digit) {
+            return "password.validation.digit";
         }
-        return null;
-    }
-    
-
-
-    public static String validateOptional(String password, MessageSource messageSource, Locale locale) {
-        if (password == null || password.isEmpty()) {
-            return null;
+        if (!special) {
+            return "password.validation.special";
         }
-        return validate(password, messageSource, locale);
+        return null;
     }
 }
-
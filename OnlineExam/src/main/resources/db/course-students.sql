@@ -0,0 +1,15 @@
+-- course_students has no primary key, so nothing stopped two concurrent enrollments
+-- from inserting the same pair. Drops existing duplicates and adds the unique index
+-- that CourseEnrollmentJdbcRepository's ON CONFLICT relies on. Runs after Hibernate
+-- has created/updated the schema and does nothing once the index exists. The DO body
+-- is single-quoted because the script runner does not know dollar quoting.
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_indexes
+                   WHERE tablename = ''course_students''
+                     AND indexname = ''uk_course_students_course_student'') THEN
+        DELETE FROM course_students a USING course_students b
+        WHERE a.course_id = b.course_id AND a.student_id = b.student_id AND a.ctid > b.ctid;
+        CREATE UNIQUE INDEX uk_course_students_course_student ON course_students (course_id, student_id);
+    END IF;
+END';
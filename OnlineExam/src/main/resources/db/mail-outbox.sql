@@ -0,0 +1,17 @@
+-- mail_outbox.status is stored by name (EnumType.STRING). Tables created while it was
+-- stored by ordinal still have a smallint column, which ddl-auto=update does not change;
+-- convert those once. Runs after Hibernate has created/updated the schema and does
+-- nothing on later starts. The DO body is single-quoted because the script runner
+-- splits on semicolons outside quotes and does not know dollar quoting.
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = ''mail_outbox'' AND column_name = ''status''
+                 AND data_type IN (''smallint'', ''integer'')) THEN
+        ALTER TABLE mail_outbox DROP CONSTRAINT IF EXISTS mail_outbox_status_check;
+        ALTER TABLE mail_outbox ALTER COLUMN status TYPE varchar(16)
+            USING (ARRAY[''PENDING'', ''SENT'', ''FAILED''])[status + 1];
+        ALTER TABLE mail_outbox ADD CONSTRAINT mail_outbox_status_check
+            CHECK (status IN (''PENDING'', ''SENT'', ''FAILED''));
+    END IF;
+END';
@@ -0,0 +1,10 @@
+-- Trigram indexes backing the admin user search (UserRepository.searchUsersPage).
+-- Runs after Hibernate has created/updated the schema; every statement is idempotent.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_users_first_name_trgm ON users USING gin (first_name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_last_name_trgm ON users USING gin (last_name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_search_text_trgm ON users
+    USING gin ((first_name || ' ' || last_name || ' ' || username || ' ' || email) gin_trgm_ops);
@@ -0,0 +1,97 @@
+package ir.maktabsharif.onlineexam.attempt;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long TICK = 1000;
+    private static final int WHEEL_SIZE = 4096;
+
+    /**
+     * 100k attempts with deadlines over three hours, so most of them are more than one
+     * rotation (4096 ticks) away when scheduled. Every tenth is cancelled and every
+     * seventh rescheduled; the rest must expire exactly once, on the first tick at or
+     * after their deadline, in deadline order.
+     */
+    @Test
+    void expiresHundredThousandAttemptsInDeadlineOrder() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, START);
+        Random random = new Random(42);
+        long horizon = 3 * 60 * 60 * 1000L;
+        Map<Long, Long> deadlines = new HashMap<>();
+        Set<Long> cancelled = new HashSet<>();
+
+        for (long id = 1; id <= 100_000; id++) {
+            long deadline = START + 1 + (long) (random.nextDouble() * horizon);
+            wheel.schedule(id, deadline);
+            deadlines.put(id, deadline);
+        }
+        for (long id = 7; id <= 100_000; id += 7) {
+            long deadline = START + 1 + (long) (random.nextDouble() * horizon);
+            wheel.schedule(id, deadline);
+            deadlines.put(id, deadline);
+        }
+        for (long id = 10; id <= 100_000; id += 10) {
+            assertThat(wheel.cancel(id)).isTrue();
+            cancelled.add(id);
+        }
+        assertThat(wheel.size()).isEqualTo(100_000 - cancelled.size());
+
+        Set<Long> expired = new HashSet<>();
+        long lastDeadline = Long.MIN_VALUE;
+        for (long now = START + TICK; now <= START + horizon + TICK; now += TICK) {
+            List<Long> due = wheel.advance(now);
+            long maxInTick = lastDeadline;
+            for (Long id : due) {
+                long deadline = deadlines.get(id);
+                assertThat(cancelled).doesNotContain(id);
+                assertThat(expired.add(id)).as("attempt %d expired twice", id).isTrue();
+                assertThat(deadline).as("attempt %d expired early", id).isLessThanOrEqualTo(now);
+                assertThat(deadline).as("attempt %d expired late", id).isGreaterThan(now - TICK);
+                assertThat(deadline).isGreaterThan(lastDeadline);
+                maxInTick = Math.max(maxInTick, deadline);
+            }
+            lastDeadline = maxInTick;
+        }
+
+        assertThat(expired).hasSize(100_000 - cancelled.size());
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void expiresPastDeadlinesOnTheNextTick() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, START);
+        wheel.advance(START + 10 * TICK);
+
+        wheel.schedule(1, START);
+
+        assertThat(wheel.advance(START + 10 * TICK + TICK - 1)).isEmpty();
+        assertThat(wheel.advance(START + 11 * TICK)).containsExactly(1L);
+    }
+
+    @Test
+    void reschedulingReplacesTheEarlierDeadline() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, START);
+        wheel.schedule(1, START + 2 * TICK);
+        wheel.schedule(1, START + 5 * TICK);
+
+        assertThat(wheel.advance(START + 4 * TICK)).isEmpty();
+        assertThat(wheel.advance(START + 5 * TICK)).containsExactly(1L);
+        assertThat(wheel.cancel(1)).isFalse();
+    }
+
+    @Test
+    void rejectsWheelSizesThatAreNotPowersOfTwo() {
+        assertThatThrownBy(() -> new TimingWheel(TICK, 1000, START))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,122 @@
+package ir.maktabsharif.onlineexam.geoip;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against the documentation-network databases in {@code src/test/resources/geoip},
+ * written by {@code generate.py} there.
+ */
+class GeoIpServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private Path database;
+    private GeoIpService service;
+
+    @BeforeEach
+    void startService() throws IOException {
+        database = directory.resolve("GeoLite2-Country.mmdb");
+        copyFixture("GeoIP2-Country-Test.mmdb", database);
+
+        service = new GeoIpService();
+        ReflectionTestUtils.setField(service, "databasePath", database.toString());
+        ReflectionTestUtils.setField(service, "cacheSize", 100L);
+        // Reloads are triggered by hand below.
+        ReflectionTestUtils.setField(service, "reloadIntervalMillis", 0L);
+        service.start();
+    }
+
+    @AfterEach
+    void stopService() {
+        service.stop();
+    }
+
+    @Test
+    void looksUpCountriesFromTheConfiguredDatabase() {
+        assertThat(service.isAvailable()).isTrue();
+        assertThat(service.countryCode("192.0.2.77")).contains("IR");
+        assertThat(service.countryCode("198.51.100.1")).contains("DE");
+        assertThat(service.countryCode("203.0.113.5")).isEmpty();
+        assertThat(service.countryCode("10.0.0.1")).isEmpty();
+        assertThat(service.countryCode("not-an-address.example")).isEmpty();
+    }
+
+    @Test
+    void mapsAPrivateCopyRatherThanTheConfiguredFile() throws IOException {
+        Path workDirectory = (Path) ReflectionTestUtils.getField(service, "workDirectory");
+        try (var copies = Files.list(workDirectory)) {
+            assertThat(copies).hasSize(1).noneMatch(database::equals);
+        }
+
+        // Overwriting the configured file in place leaves the open database alone,
+        // and the unreadable new content is not swapped in.
+        Files.write(database, new byte[(int) Files.size(database)]);
+        Files.setLastModifiedTime(database, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        ReflectionTestUtils.invokeMethod(service, "reloadIfChanged");
+
+        assertThat(service.countryCode("192.0.2.200")).contains("IR");
+        assertThat(service.countryCode("198.51.100.2")).contains("DE");
+    }
+
+    @Test
+    void reloadsADatabaseMovedIntoPlace() throws IOException {
+        assertThat(service.countryCode("198.51.100.1")).contains("DE");
+
+        Path staged = directory.resolve("GeoLite2-Country.mmdb.new");
+        copyFixture("GeoIP2-Country-Test-Updated.mmdb", staged);
+        Files.setLastModifiedTime(staged, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        Files.move(staged, database, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        ReflectionTestUtils.invokeMethod(service, "reloadIfChanged");
+
+        assertThat(service.countryCode("198.51.100.1")).contains("AF");
+        assertThat(service.countryCode("192.0.2.77")).contains("IR");
+    }
+
+    @Test
+    void removesItsCopiesOnStop() {
+        Path workDirectory = (Path) ReflectionTestUtils.getField(service, "workDirectory");
+
+        service.stop();
+
+        assertThat(workDirectory).doesNotExist();
+        assertThat(service.isAvailable()).isFalse();
+    }
+
+    @Test
+    void closesReplacedDatabasesStillInTheirGracePeriodOnStop() throws IOException {
+        Path workDirectory = (Path) ReflectionTestUtils.getField(service, "workDirectory");
+        Path staged = directory.resolve("GeoLite2-Country.mmdb.new");
+        copyFixture("GeoIP2-Country-Test-Updated.mmdb", staged);
+        Files.setLastModifiedTime(staged, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        Files.move(staged, database, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        ReflectionTestUtils.invokeMethod(service, "reloadIfChanged");
+        try (var copies = Files.list(workDirectory)) {
+            assertThat(copies).hasSize(2);
+        }
+
+        service.stop();
+
+        assertThat(workDirectory).doesNotExist();
+        assertThat((List<?>) ReflectionTestUtils.getField(service, "retired")).isEmpty();
+    }
+
+    private static void copyFixture(String name, Path target) throws IOException {
+        try (InputStream in = new ClassPathResource("geoip/" + name).getInputStream()) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package ir.maktabsharif.onlineexam.grading;
+import ir.maktabsharif.onlineexam.grading.AnswerKey.AnswerSheet;
+import ir.maktabsharif.onlineexam.model.dto.ExamQuestions;
+import ir.maktabsharif.onlineexam.model.dto.QuestionView;
+import ir.maktabsharif.onlineexam.model.enums.QuestionType;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnswerKeyTest {
+
+    /**
+     * 70 questions of three options each, so the key spans four words. Question 22
+     * (position 21) owns bits 63-65 and straddles the first word boundary; question i
+     * is worth i points and its correct option is {@code i % 3}.
+     */
+    private static final int QUESTIONS = 70;
+    private static final long STRADDLING = 22;
+
+    private final AnswerKey key = AnswerKey.of(new ExamQuestions(1L, IntStream.rangeClosed(1, QUESTIONS)
+            .mapToObj(i -> multipleChoice(i, i % 3, i))
+            .toList()));
+
+    @Test
+    void gradesEveryQuestionAcrossWordBoundaries() {
+        AnswerSheet sheet = key.newSheet(100L);
+        for (long id = 1; id <= QUESTIONS; id++) {
+            sheet.mark(id, String.valueOf(id % 3));
+        }
+
+        GradedAttempt graded = key.grade(sheet);
+
+        assertThat(graded.getAttemptId()).isEqualTo(100L);
+        assertThat(graded.getCorrectCount()).isEqualTo(QUESTIONS);
+        assertThat(graded.getScore()).isEqualTo(QUESTIONS * (QUESTIONS + 1) / 2.0);
+        assertThat(graded.getScore()).isEqualTo(key.getMaxScore());
+        assertThat(IntStream.range(0, QUESTIONS)).allMatch(graded::isCorrect);
+    }
+
+    @Test
+    void mapsCorrectBitsBackToTheirQuestions() {
+        AnswerSheet sheet = key.newSheet(100L);
+        // Correct: the straddling question on its bit 64, and question 66 in the third word.
+        sheet.mark(STRADDLING, "1");
+        sheet.mark(66L, "0");
+        // Wrong: question 21 (bits 60-62) and question 43 (bits 126-128).
+        sheet.mark(21L, "1");
+        sheet.mark(43L, "2");
+
+        GradedAttempt graded = key.grade(sheet);
+
+        assertThat(graded.getCorrectCount()).isEqualTo(2);
+        assertThat(graded.getScore()).isEqualTo(22 + 66);
+        assertThat(IntStream.range(0, QUESTIONS).filter(graded::isCorrect).mapToObj(key::questionIdAt))
+                .containsExactly(STRADDLING, 66L);
+    }
+
+    @Test
+    void countsTheStraddlingQuestionOnEitherSideOfTheBoundary() {
+        AnswerKey lowBit = AnswerKey.of(new ExamQuestions(1L, straddlingKey(0)));
+        AnswerKey highBit = AnswerKey.of(new ExamQuestions(1L, straddlingKey(2)));
+
+        AnswerSheet low = lowBit.newSheet(1L);
+        low.mark(STRADDLING, "0");
+        AnswerSheet high = highBit.newSheet(2L);
+        high.mark(STRADDLING, "2");
+        AnswerSheet wrong = highBit.newSheet(3L);
+        wrong.mark(STRADDLING, "0");
+
+        assertThat(lowBit.grade(low).isCorrect(21)).isTrue();
+        assertThat(highBit.grade(high).isCorrect(21)).isTrue();
+        assertThat(highBit.grade(wrong).getCorrectCount()).isZero();
+    }
+
+    @Test
+    void reAnsweringReplacesTheEarlierAnswer() {
+        AnswerSheet rightThenWrong = key.newSheet(1L);
+        rightThenWrong.mark(STRADDLING, "1");
+        rightThenWrong.mark(STRADDLING, "2");
+
+        AnswerSheet wrongThenRight = key.newSheet(2L);
+        wrongThenRight.mark(STRADDLING, "0");
+        wrongThenRight.mark(STRADDLING, "2");
+        wrongThenRight.mark(STRADDLING, "1");
+
+        assertThat(key.grade(rightThenWrong).getCorrectCount()).isZero();
+        GradedAttempt graded = key.grade(wrongThenRight);
+        assertThat(graded.getCorrectCount()).isEqualTo(1);
+        assertThat(graded.getScore()).isEqualTo(22);
+    }
+
+    @Test
+    void ignoresAnswersThatAreNotAValidOption() {
+        AnswerSheet sheet = key.newSheet(1L);
+        sheet.mark(STRADDLING, "1");
+        for (String invalid : new String[]{"3", "-1", "a", "1.0", "", "  ", null}) {
+            sheet.mark(STRADDLING, invalid);
+        }
+        sheet.mark(999L, "0");
+        sheet.mark(5L, " 2 ");
+
+        GradedAttempt graded = key.grade(sheet);
+
+        assertThat(graded.getCorrectCount()).isEqualTo(2);
+        assertThat(graded.getScore()).isEqualTo(22 + 5);
+    }
+
+    @Test
+    void leavesOutQuestionsThatCannotBeGradedByTheKey() {
+        List<QuestionView> questions = List.of(
+                multipleChoice(1, 0, 2),
+                new QuestionView(2L, QuestionType.DESCRIPTIVE, "Essay", List.of(), null, 10),
+                new QuestionView(3L, QuestionType.MULTIPLE_CHOICE, "No key", List.of("a", "b"), null, 3),
+                new QuestionView(4L, QuestionType.MULTIPLE_CHOICE, "Bad key", List.of("a", "b"), 2, 4),
+                multipleChoice(5, 1, 5));
+
+        AnswerKey partial = AnswerKey.of(new ExamQuestions(1L, questions));
+
+        assertThat(partial.size()).isEqualTo(2);
+        assertThat(partial.questionIdAt(0)).isEqualTo(1L);
+        assertThat(partial.questionIdAt(1)).isEqualTo(5L);
+        assertThat(partial.getMaxScore()).isEqualTo(7);
+    }
+
+    private static List<QuestionView> straddlingKey(int correctOption) {
+        List<QuestionView> questions = new ArrayList<>();
+        for (int i = 1; i <= STRADDLING; i++) {
+            questions.add(multipleChoice(i, i == STRADDLING ? correctOption : 0, 1));
+        }
+        return questions;
+    }
+
+    static QuestionView multipleChoice(long id, int correctOption, double score) {
+        return new QuestionView(id, QuestionType.MULTIPLE_CHOICE, "Question " + id,
+                List.of("A", "B", "C"), correctOption, score);
+    }
+}
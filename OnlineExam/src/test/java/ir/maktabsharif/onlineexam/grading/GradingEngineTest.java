@@ -0,0 +1,139 @@
+package ir.maktabsharif.onlineexam.grading;
+import ir.maktabsharif.onlineexam.cache.QuestionSnapshotCache;
+import ir.maktabsharif.onlineexam.model.dto.ExamQuestions;
+import ir.maktabsharif.onlineexam.repository.ExamAttemptRepository;
+import ir.maktabsharif.onlineexam.repository.GradingJdbcRepository;
+import ir.maktabsharif.onlineexam.repository.GradingJdbcRepository.AnswerRowHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static ir.maktabsharif.onlineexam.grading.AnswerKeyTest.multipleChoice;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the grading engine against stubbed repositories: seven finished attempts of a
+ * two-question exam, read in chunks of three.
+ */
+class GradingEngineTest {
+
+    private static final Long EXAM_ID = 1L;
+    private static final int CHUNK_SIZE = 3;
+
+    private final GradingJdbcRepository gradingJdbcRepository = mock(GradingJdbcRepository.class);
+    private final GradeWriter gradeWriter = mock(GradeWriter.class);
+    private final ExamAttemptRepository examAttemptRepository = mock(ExamAttemptRepository.class);
+    private final QuestionSnapshotCache questionSnapshotCache = mock(QuestionSnapshotCache.class);
+    private final Map<Long, GradedAttempt> written = new ConcurrentHashMap<>();
+
+    private GradingEngine engine;
+
+    @BeforeEach
+    void startEngine() {
+        when(questionSnapshotCache.get(EXAM_ID)).thenReturn(new ExamQuestions(EXAM_ID, List.of(
+                multipleChoice(10, 0, 2),
+                multipleChoice(20, 2, 3))));
+        when(examAttemptRepository.countUngraded(eq(EXAM_ID), any())).thenReturn(7L);
+        doAnswer(invocation -> {
+            List<GradedAttempt> results = invocation.getArgument(2);
+            results.forEach(result -> written.put(result.getAttemptId(), result));
+            return results.size();
+        }).when(gradeWriter).write(eq(EXAM_ID), any(), anyList());
+
+        engine = new GradingEngine(gradingJdbcRepository, gradeWriter, examAttemptRepository, questionSnapshotCache);
+        ReflectionTestUtils.setField(engine, "parallelism", 2);
+        ReflectionTestUtils.setField(engine, "connectionPoolSize", 10);
+        ReflectionTestUtils.setField(engine, "chunkSize", CHUNK_SIZE);
+        ReflectionTestUtils.setField(engine, "fetchSize", 100);
+        ReflectionTestUtils.setField(engine, "sweepIntervalMillis", 3_600_000L);
+        engine.start();
+    }
+
+    @AfterEach
+    void stopEngine() throws InterruptedException {
+        engine.stop();
+    }
+
+    @Test
+    void gradesEveryAttemptHandedOverInChunks() throws InterruptedException {
+        streamAttempts(7);
+
+        GradingStatus status = gradeAndWait();
+
+        assertThat(status.getFinishedAttempts()).isEqualTo(7);
+        assertThat(status.getGradedAttempts()).isEqualTo(7);
+        assertThat(status.getFailedAttempts()).isZero();
+        assertThat(written).hasSize(7);
+        // Odd attempts answer both questions correctly, even ones only the first;
+        // attempt 7 has no answer rows at all.
+        assertThat(written.get(1L).getScore()).isEqualTo(5);
+        assertThat(written.get(2L).getScore()).isEqualTo(2);
+        assertThat(written.get(6L).getScore()).isEqualTo(2);
+        assertThat(written.get(7L).getScore()).isZero();
+    }
+
+    @Test
+    void countsTheAttemptsOfAChunkThatCouldNotBeWritten() throws InterruptedException {
+        streamAttempts(7);
+        doAnswer(invocation -> {
+            throw new IllegalStateException("write failed");
+        }).when(gradeWriter).write(eq(EXAM_ID), any(), anyList());
+
+        GradingStatus status = gradeAndWait();
+
+        assertThat(status.getGradedAttempts()).isZero();
+        assertThat(status.getFailedAttempts()).isEqualTo(7);
+    }
+
+    @Test
+    void countsUnreadAttemptsAsFailedWhenTheCursorBreaks() throws InterruptedException {
+        doAnswer(invocation -> {
+            AnswerRowHandler handler = invocation.getArgument(2);
+            for (long attemptId = 1; attemptId <= 4; attemptId++) {
+                handler.handle(attemptId, 10L, "0");
+            }
+            throw new IllegalStateException("connection lost");
+        }).when(gradingJdbcRepository).streamUngradedAnswers(eq(EXAM_ID), anyInt(), any());
+
+        GradingStatus status = gradeAndWait();
+
+        // The first chunk was handed over before the cursor broke; the rest never will be.
+        assertThat(status.getGradedAttempts()).isEqualTo(CHUNK_SIZE);
+        assertThat(status.getFailedAttempts()).isEqualTo(7 - CHUNK_SIZE);
+        assertThat(written).containsOnlyKeys(1L, 2L, 3L);
+    }
+
+    /** Streams attempts 1..{@code count} ordered by attempt, as the cursor does. */
+    private void streamAttempts(int count) {
+        doAnswer(invocation -> {
+            AnswerRowHandler handler = invocation.getArgument(2);
+            for (long attemptId = 1; attemptId < count; attemptId++) {
+                handler.handle(attemptId, 10L, "0");
+                handler.handle(attemptId, 20L, attemptId % 2 == 1 ? "2" : "1");
+                handler.handle(attemptId, 30L, "0");
+            }
+            handler.handle((long) count, null, null);
+            return null;
+        }).when(gradingJdbcRepository).streamUngradedAnswers(eq(EXAM_ID), anyInt(), any());
+    }
+
+    private GradingStatus gradeAndWait() throws InterruptedException {
+        engine.grade(EXAM_ID);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (engine.isGrading(EXAM_ID) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return engine.getRun(EXAM_ID).orElseThrow();
+    }
+}
@@ -0,0 +1,132 @@
+package ir.maktabsharif.onlineexam.mail;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import ir.maktabsharif.onlineexam.config.VirtualThreads;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private MailDispatcher dispatcher;
+
+    @AfterEach
+    void stopDispatcher() throws InterruptedException {
+        if (dispatcher != null && (boolean) ReflectionTestUtils.getField(dispatcher, "running")) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void sendsQueuedMailInBatchesOverSmtp() throws Exception {
+        dispatcher = dispatcher(smtpSender(), 1000);
+
+        for (int i = 1; i <= 25; i++) {
+            dispatcher.enqueue(job("student" + i + "@example.com", "Subject " + i));
+        }
+
+        assertThat(greenMail.waitForIncomingEmail(10_000, 25)).isTrue();
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(Arrays.stream(received).map(this::subject))
+                .containsExactlyInAnyOrderElementsOf(IntStream.rangeClosed(1, 25)
+                        .mapToObj(i -> "Subject " + i).toList());
+        // A batch is counted only after its last message went out; stopping waits for that.
+        dispatcher.stop();
+        MailDispatcherStats stats = dispatcher.getStats();
+        assertThat(stats.getSent()).isEqualTo(25);
+        assertThat(stats.getBatches()).isLessThan(25);
+    }
+
+    @Test
+    void rejectsMailAfterShutdownWithShutdownMessage() throws InterruptedException {
+        dispatcher = dispatcher(smtpSender(), 1000);
+        dispatcher.stop();
+
+        assertThatThrownBy(() -> dispatcher.enqueue(job("late@example.com", "Late")))
+                .hasMessage("Mail dispatcher is shut down");
+        assertThat(dispatcher.getStats().getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void sendsPendingRetriesWhenStopping() throws Exception {
+        AtomicInteger sendCalls = new AtomicInteger();
+        JavaMailSenderImpl failingOnce = new JavaMailSenderImpl() {
+            @Override
+            public void send(MimeMessage... mimeMessages) {
+                if (sendCalls.incrementAndGet() == 1) {
+                    throw new MailSendException("Connection refused");
+                }
+                super.send(mimeMessages);
+            }
+        };
+        configure(failingOnce);
+        // The backoff is far longer than the test, so the retry is only sent by stop().
+        dispatcher = dispatcher(failingOnce, 60_000);
+
+        dispatcher.enqueue(job("retry@example.com", "Retried"));
+        while (dispatcher.getStats().getRetried() == 0) {
+            Thread.sleep(20);
+        }
+        dispatcher.stop();
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        assertThat(subject(greenMail.getReceivedMessages()[0])).isEqualTo("Retried");
+        assertThat(dispatcher.getStats().getSent()).isEqualTo(1);
+        assertThat(dispatcher.getStats().getFailed()).isZero();
+    }
+
+    private MailDispatcher dispatcher(JavaMailSenderImpl mailSender, long retryBackoffMillis) {
+        MailDispatcher mailDispatcher = new MailDispatcher(mailSender, new VirtualThreads());
+        ReflectionTestUtils.setField(mailDispatcher, "workers", 1);
+        ReflectionTestUtils.setField(mailDispatcher, "queueCapacity", 100);
+        ReflectionTestUtils.setField(mailDispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(mailDispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(mailDispatcher, "retryBackoffMillis", retryBackoffMillis);
+        mailDispatcher.start();
+        return mailDispatcher;
+    }
+
+    private JavaMailSenderImpl smtpSender() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        configure(mailSender);
+        return mailSender;
+    }
+
+    private void configure(JavaMailSenderImpl mailSender) {
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+    }
+
+    private MailJob job(String recipient, String subject) {
+        return new MailJob(recipient, subject, message -> {
+            MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+            helper.setFrom("noreply@example.com");
+            helper.setTo(recipient);
+            helper.setSubject(subject);
+            helper.setText("Body of " + subject);
+        });
+    }
+
+    private String subject(MimeMessage message) {
+        try {
+            return message.getSubject();
+        } catch (MessagingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
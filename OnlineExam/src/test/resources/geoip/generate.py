@@ -0,0 +1,121 @@
+#!/usr/bin/env python3
+"""Writes the small GeoIP2-Country test databases used by GeoIpServiceTest.
+
+The files follow the MaxMind DB format 2.0 (https://maxmind.github.io/MaxMind-DB/):
+an IPv4 search tree with 24-bit records, the data section and the metadata. They only
+hold documentation networks (RFC 5737), so they carry no real GeoIP data.
+
+    python3 src/test/resources/geoip/generate.py
+"""
+import ipaddress
+import os
+import struct
+
+METADATA_MARKER = b'\xab\xcd\xefMaxMind.com'
+RECORD_SIZE = 24
+
+
+def control(type_number, size):
+    if type_number > 7:
+        head, extended = 0, bytes([type_number - 7])
+    else:
+        head, extended = type_number << 5, b''
+    if size < 29:
+        return bytes([head | size]) + extended
+    if size < 285:
+        return bytes([head | 29]) + extended + bytes([size - 29])
+    return bytes([head | 30]) + extended + struct.pack('>H', size - 285)
+
+
+def unsigned(type_number, value):
+    raw = value.to_bytes((value.bit_length() + 7) // 8, 'big')
+    return control(type_number, len(raw)) + raw
+
+
+def uint16(value):
+    return unsigned(5, value)
+
+
+def uint32(value):
+    return unsigned(6, value)
+
+
+def uint64(value):
+    return unsigned(9, value)
+
+
+def encode(value):
+    if isinstance(value, (bytes, bytearray)):
+        return bytes(value)
+    if isinstance(value, str):
+        raw = value.encode('utf-8')
+        return control(2, len(raw)) + raw
+    if isinstance(value, dict):
+        return control(7, len(value)) + b''.join(encode(k) + encode(v) for k, v in value.items())
+    if isinstance(value, list):
+        return control(11, len(value)) + b''.join(encode(item) for item in value)
+    raise TypeError(value)
+
+
+def country(iso_code, geoname_id, name):
+    return {'country': {'geoname_id': uint32(geoname_id), 'iso_code': iso_code, 'names': {'en': name}}}
+
+
+def build(path, networks):
+    # Binary trie over the address bits: a child is None, ('node', index) or ('data', offset).
+    nodes = [[None, None]]
+    data = b''
+    for cidr, record in networks.items():
+        network = ipaddress.IPv4Network(cidr)
+        offset = len(data)
+        data += encode(record)
+        bits = int(network.network_address)
+        node = 0
+        for depth in range(network.prefixlen):
+            bit = (bits >> (31 - depth)) & 1
+            if depth == network.prefixlen - 1:
+                nodes[node][bit] = ('data', offset)
+            else:
+                child = nodes[node][bit]
+                if child is None:
+                    nodes.append([None, None])
+                    child = ('node', len(nodes) - 1)
+                    nodes[node][bit] = child
+                node = child[1]
+
+    node_count = len(nodes)
+
+    def record_value(child):
+        if child is None:
+            return node_count
+        kind, value = child
+        return value if kind == 'node' else node_count + 16 + value
+
+    tree = b''.join(record_value(left).to_bytes(3, 'big') + record_value(right).to_bytes(3, 'big')
+                    for left, right in nodes)
+    metadata = encode({
+        'binary_format_major_version': uint16(2),
+        'binary_format_minor_version': uint16(0),
+        'build_epoch': uint64(1_700_000_000),
+        'database_type': 'GeoIP2-Country',
+        'description': {'en': 'OnlineExam test database'},
+        'ip_version': uint16(4),
+        'languages': ['en'],
+        'node_count': uint32(node_count),
+        'record_size': uint16(RECORD_SIZE),
+    })
+    with open(path, 'wb') as out:
+        out.write(tree + bytes(16) + data + METADATA_MARKER + metadata)
+
+
+if __name__ == '__main__':
+    here = os.path.dirname(os.path.abspath(__file__))
+    build(os.path.join(here, 'GeoIP2-Country-Test.mmdb'), {
+        '192.0.2.0/24': country('IR', 130758, 'Iran'),
+        '198.51.100.0/24': country('DE', 2921044, 'Germany'),
+    })
+    # The same networks after an update: 198.51.100.0/24 moved to Afghanistan.
+    build(os.path.join(here, 'GeoIP2-Country-Test-Updated.mmdb'), {
+        '192.0.2.0/24': country('IR', 130758, 'Iran'),
+        '198.51.100.0/24': country('AF', 1149361, 'Afghanistan'),
+    })